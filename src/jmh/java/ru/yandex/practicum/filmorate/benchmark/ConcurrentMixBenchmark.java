@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Смешанная нагрузка, близкая к продовой: чтения фильмов и популярного,
+ * лайки, дружба и создание фильмов одновременно в одном хранилище.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ConcurrentMixBenchmark {
+
+    @Param({"100000"})
+    private int films;
+
+    @Param({"100000"})
+    private int users;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    private Distribution distribution;
+
+    @Param({Dataset.IN_MEMORY, Dataset.SNAPSHOT, Dataset.PARTITIONED, Dataset.OFF_HEAP})
+    private String engine;
+
+    private FilmStorage filmStorage;
+    private FilmService filmService;
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filmStorage = Dataset.filmStorage(engine);
+        UserStorage userStorage = Dataset.userStorage(engine);
+        Dataset.fillFilms(filmStorage, films);
+        Dataset.fillUsers(userStorage, users);
+        SplittableRandom random = new SplittableRandom(42);
+        Dataset.fillLikes(filmStorage, films, users, films * 2L, distribution, random);
+        Dataset.fillFriendships(userStorage, users, 20, distribution, random);
+        filmService = new FilmService(filmStorage, userStorage, Dataset.validator());
+        userService = new UserService(userStorage, Dataset.validator());
+    }
+
+    @Benchmark
+    @Group("mix")
+    @GroupThreads(4)
+    public Film findFilm(ThreadRandom random) {
+        return filmService.getFilmById(distribution.nextId(random.random, films));
+    }
+
+    @Benchmark
+    @Group("mix")
+    @GroupThreads(2)
+    public List<Film> getPopularFilms() {
+        return filmService.getPopularFilms(10);
+    }
+
+    @Benchmark
+    @Group("mix")
+    @GroupThreads(2)
+    public List<User> getFriends(ThreadRandom random) {
+        return userService.getFriends(distribution.nextId(random.random, users));
+    }
+
+    @Benchmark
+    @Group("mix")
+    @GroupThreads(1)
+    public void like(ThreadRandom random) {
+        int filmId = distribution.nextId(random.random, films);
+        int userId = 1 + random.random.nextInt(users);
+        if (random.random.nextBoolean()) {
+            filmService.addLike(filmId, userId);
+        } else {
+            filmService.removeLike(filmId, userId);
+        }
+    }
+
+    @Benchmark
+    @Group("mix")
+    @GroupThreads(1)
+    public void addFriend(ThreadRandom random) {
+        int userId = distribution.nextId(random.random, users);
+        int friendId = 1 + random.random.nextInt(users);
+        if (userId != friendId) {
+            userService.addFriend(userId, friendId);
+        }
+    }
+
+    @Benchmark
+    @Group("mix")
+    @GroupThreads(1)
+    public Film createFilm(ThreadRandom random) {
+        return filmStorage.create(Dataset.film(random.random.nextInt(films)));
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+}
@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapFilmStorage;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapUserStorage;
+import ru.yandex.practicum.filmorate.storage.partitioned.PartitionedFilmStorage;
+import ru.yandex.practicum.filmorate.storage.partitioned.PartitionedUserStorage;
+import ru.yandex.practicum.filmorate.storage.snapshot.SnapshotFilmStorage;
+import ru.yandex.practicum.filmorate.storage.snapshot.SnapshotUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Общие для бенчмарков наборы данных. Хранилища создаются по имени движка,
+ * чтобы разные реализации сравнивались на одной и той же нагрузке.
+ */
+public final class Dataset {
+
+    public static final String IN_MEMORY = "in-memory";
+    public static final String SNAPSHOT = "snapshot";
+    public static final String PARTITIONED = "partitioned";
+    public static final String OFF_HEAP = "off-heap";
+
+    private static final int PARTITIONS = Runtime.getRuntime().availableProcessors();
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private Dataset() {
+    }
+
+    public static FilmStorage filmStorage(String engine) {
+        return switch (engine) {
+            case IN_MEMORY -> new InMemoryFilmStorage();
+            case SNAPSHOT -> new SnapshotFilmStorage();
+            case PARTITIONED -> new PartitionedFilmStorage(PARTITIONS, ForkJoinPool.commonPool());
+            case OFF_HEAP -> new OffHeapFilmStorage();
+            default -> throw new IllegalArgumentException("Неизвестное хранилище: " + engine);
+        };
+    }
+
+    public static UserStorage userStorage(String engine) {
+        return switch (engine) {
+            case IN_MEMORY -> new InMemoryUserStorage();
+            case SNAPSHOT -> new SnapshotUserStorage();
+            case PARTITIONED -> new PartitionedUserStorage(PARTITIONS);
+            case OFF_HEAP -> new OffHeapUserStorage();
+            default -> throw new IllegalArgumentException("Неизвестное хранилище: " + engine);
+        };
+    }
+
+    public static Validator validator() {
+        return VALIDATOR;
+    }
+
+    public static Film film(int seed) {
+        Film film = new Film();
+        film.setName("Film " + seed);
+        film.setDescription("Description of film " + seed);
+        film.setReleaseDate(LocalDate.of(1950 + seed % 70, 1 + seed % 12, 1 + seed % 28));
+        film.setDuration(60 + seed % 120);
+        return film;
+    }
+
+    public static User user(int seed) {
+        User user = new User();
+        user.setEmail("user" + seed + "@mail.ru");
+        user.setLogin("user" + seed);
+        user.setName("User " + seed);
+        user.setBirthday(LocalDate.of(1960 + seed % 45, 1 + seed % 12, 1 + seed % 28));
+        return user;
+    }
+
+    public static void fillFilms(FilmStorage storage, int count) {
+        for (int i = 0; i < count; i++) {
+            storage.create(film(i));
+        }
+    }
+
+    public static void fillUsers(UserStorage storage, int count) {
+        for (int i = 0; i < count; i++) {
+            storage.create(user(i));
+        }
+    }
+
+    public static void fillLikes(FilmStorage storage, int films, int users, long likes,
+                                 Distribution distribution, SplittableRandom random) {
+        for (long i = 0; i < likes; i++) {
+            storage.addLike(distribution.nextId(random, films), 1 + random.nextInt(users));
+        }
+    }
+
+    public static void fillFriendships(UserStorage storage, int users, int averageDegree,
+                                       Distribution distribution, SplittableRandom random) {
+        long edges = (long) users * averageDegree / 2;
+        for (long i = 0; i < edges; i++) {
+            int userId = distribution.nextId(random, users);
+            int friendId = 1 + random.nextInt(users);
+            if (userId != friendId) {
+                storage.addFriend(userId, friendId);
+            }
+        }
+    }
+}
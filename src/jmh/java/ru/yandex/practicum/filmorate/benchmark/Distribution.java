@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * Распределение выбора id в нагрузке: равномерное или степенное, когда небольшая
+ * доля фильмов и пользователей собирает большую часть лайков и друзей.
+ */
+public enum Distribution {
+    UNIFORM {
+        @Override
+        public int next(SplittableRandom random, int bound) {
+            return random.nextInt(bound);
+        }
+    },
+    POWER_LAW {
+        @Override
+        public int next(SplittableRandom random, int bound) {
+            return (int) (bound * Math.pow(random.nextDouble(), 4));
+        }
+    };
+
+    public abstract int next(SplittableRandom random, int bound);
+
+    public int nextId(SplittableRandom random, int count) {
+        return next(random, count) + 1;
+    }
+}
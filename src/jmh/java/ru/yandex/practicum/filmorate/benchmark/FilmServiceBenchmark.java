@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка популярных фильмов должна оставаться постоянной при росте каталога,
+ * поэтому размер каталога доходит до 10 млн (нужна куча порядка 12 ГБ:
+ * -Djmh.args="FilmServiceBenchmark -jvmArgsAppend -Xmx12g").
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FilmServiceBenchmark {
+
+    private static final int USERS = 100_000;
+
+    @Param({"10000", "1000000", "10000000"})
+    private int films;
+
+    @Param({"2"})
+    private int likesPerFilm;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    private Distribution distribution;
+
+    @Param({"10"})
+    private int count;
+
+    @Param({Dataset.IN_MEMORY, Dataset.SNAPSHOT, Dataset.PARTITIONED, Dataset.OFF_HEAP})
+    private String engine;
+
+    private FilmService filmService;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FilmStorage filmStorage = Dataset.filmStorage(engine);
+        UserStorage userStorage = Dataset.userStorage(engine);
+        Dataset.fillFilms(filmStorage, films);
+        Dataset.fillUsers(userStorage, USERS);
+        random = new SplittableRandom(42);
+        Dataset.fillLikes(filmStorage, films, USERS, (long) films * likesPerFilm, distribution, random);
+        filmService = new FilmService(filmStorage, userStorage, Dataset.validator());
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilms() {
+        return filmService.getPopularFilms(count);
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilmsOfYear() {
+        return filmService.getPopularFilms(count, 1950 + random.nextInt(70), null, null);
+    }
+
+    @Benchmark
+    public List<Film> searchFilms() {
+        return filmService.searchFilms("film " + distribution.nextId(random, films), count);
+    }
+
+    @Benchmark
+    public void addLike() {
+        filmService.addLike(distribution.nextId(random, films), 1 + random.nextInt(USERS));
+    }
+}
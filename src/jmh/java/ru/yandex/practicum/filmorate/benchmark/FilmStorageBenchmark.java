@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FilmStorageBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int films;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    private Distribution distribution;
+
+    @Param({Dataset.IN_MEMORY, Dataset.SNAPSHOT, Dataset.PARTITIONED, Dataset.OFF_HEAP})
+    private String engine;
+
+    private FilmStorage storage;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = Dataset.filmStorage(engine);
+        Dataset.fillFilms(storage, films);
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public Film findById() {
+        return storage.findById(distribution.nextId(random, films));
+    }
+
+    @Benchmark
+    public Film create() {
+        return storage.create(Dataset.film(random.nextInt(films)));
+    }
+
+    @Benchmark
+    public Film update() {
+        Film film = Dataset.film(random.nextInt(films));
+        film.setId(distribution.nextId(random, films));
+        return storage.update(film);
+    }
+}
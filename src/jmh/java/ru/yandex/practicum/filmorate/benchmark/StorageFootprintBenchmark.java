@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Занятая куча и пауза полной сборки мусора при заполненных хранилищах. Время
+ * операции — длительность System.gc(), то есть обхода живого набора данных;
+ * объём кучи и direct-памяти после сборки попадает в результаты как вторичные
+ * метрики heapMegabytes и directMegabytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms16g", "-Xmx16g", "-XX:MaxDirectMemorySize=16g"})
+public class StorageFootprintBenchmark {
+
+    @Param({"1000000", "10000000"})
+    private int records;
+
+    @Param({"5"})
+    private int likesPerFilm;
+
+    @Param({"10"})
+    private int averageDegree;
+
+    @Param({Dataset.IN_MEMORY, Dataset.OFF_HEAP})
+    private String engine;
+
+    private FilmStorage filmStorage;
+    private UserStorage userStorage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        filmStorage = Dataset.filmStorage(engine);
+        userStorage = Dataset.userStorage(engine);
+        Dataset.fillFilms(filmStorage, records);
+        Dataset.fillUsers(userStorage, records);
+        Dataset.fillLikes(filmStorage, records, records, (long) records * likesPerFilm, Distribution.POWER_LAW,
+                random);
+        Dataset.fillFriendships(userStorage, records, averageDegree, Distribution.POWER_LAW, random);
+    }
+
+    @Benchmark
+    public void fullGc(Footprint footprint) {
+        System.gc();
+        footprint.heapMegabytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20;
+        footprint.directMegabytes = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum() >> 20;
+    }
+
+    /**
+     * Объём памяти после сборки, в мегабайтах.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public long heapMegabytes;
+        public long directMegabytes;
+    }
+}
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class UserServiceBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int users;
+
+    @Param({"10", "100"})
+    private int averageDegree;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    private Distribution distribution;
+
+    @Param({Dataset.IN_MEMORY, Dataset.SNAPSHOT, Dataset.PARTITIONED, Dataset.OFF_HEAP})
+    private String engine;
+
+    private UserService userService;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UserStorage storage = Dataset.userStorage(engine);
+        Dataset.fillUsers(storage, users);
+        random = new SplittableRandom(42);
+        Dataset.fillFriendships(storage, users, averageDegree, distribution, random);
+        userService = new UserService(storage, Dataset.validator());
+    }
+
+    @Benchmark
+    public Collection<User> getFriends() {
+        return userService.getFriends(distribution.nextId(random, users));
+    }
+
+    @Benchmark
+    public Collection<User> getCommonFriends() {
+        return userService.getCommonFriends(distribution.nextId(random, users), distribution.nextId(random, users));
+    }
+
+    @Benchmark
+    public Collection<User> getFriendPath() {
+        try {
+            return userService.getFriendPath(distribution.nextId(random, users), distribution.nextId(random, users), 6);
+        } catch (NotFoundException e) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.load;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочный прогон поднятого приложения. Запуск: mvn -Pload verify; платформенные
+ * и виртуальные потоки сравниваются двумя прогонами с разными -Dload.label и
+ * -Dspring.threads.virtual.enabled.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "filmorate.logging.read-sample-rate=0")
+class FilmorateLoadIT {
+
+    private static final long SEED = 42;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    void shouldServeWorkloadsWithinErrorBudget() throws Exception {
+        LoadSettings settings = LoadSettings.fromSystemProperties();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        LoadContext context = new LoadContext(URI.create("http://localhost:" + port), settings.films(),
+                settings.users());
+        new LoadDataset(client, context).seed(settings, SEED);
+
+        OpenLoopDriver driver = new OpenLoopDriver(client, context);
+        for (Workload workload : settings.workloads()) {
+            driver.run(workload, settings.rate(), settings.warmup(), SEED);
+            LoadResult result = driver.run(workload, settings.rate(), settings.duration(), SEED + 1);
+            Path report = LoadReport.write(settings.reportDirectory(), settings.label(), result, environment());
+            assertTrue(result.errorRate() <= settings.maxErrorRate(),
+                    workload + ": доля ошибок " + result.errorRate() + ", отчёт " + report);
+        }
+    }
+
+    private Map<String, Object> environment() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("virtualThreads", environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false));
+        summary.put("storageEngine", environment.getProperty("filmorate.storage.engine"));
+        summary.put("likesMode", environment.getProperty("filmorate.likes.mode"));
+        summary.put("processors", Runtime.getRuntime().availableProcessors());
+        summary.put("javaVersion", Runtime.version().toString());
+        return summary;
+    }
+}
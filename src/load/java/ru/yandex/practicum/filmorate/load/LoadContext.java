@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/**
+ * Адрес приложения и размеры набора данных, из которых операции собирают запросы.
+ */
+public record LoadContext(URI baseUri, int films, int users) {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int HOT_FILMS = 100;
+
+    public HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    public HttpRequest put(String path) {
+        return request(path).PUT(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    public HttpRequest delete(String path) {
+        return request(path).DELETE().build();
+    }
+
+    public int film(SplittableRandom random) {
+        return 1 + random.nextInt(films);
+    }
+
+    /**
+     * Фильм премьеры: несколько фильмов получают большую часть лайков.
+     */
+    public int hotFilm(SplittableRandom random) {
+        return 1 + (int) (Math.min(HOT_FILMS, films) * Math.pow(random.nextDouble(), 3));
+    }
+
+    public int user(SplittableRandom random) {
+        return 1 + random.nextInt(users);
+    }
+
+    public int otherUser(SplittableRandom random, int userId) {
+        int other = 1 + random.nextInt(users - 1);
+        return other >= userId ? other + 1 : other;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT);
+    }
+}
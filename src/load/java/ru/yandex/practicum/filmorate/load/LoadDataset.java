@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Заполняет приложение данными через пакетные эндпоинты, чтобы прогон
+ * проходил через тот же HTTP-стек, что и измеряемые запросы.
+ */
+public class LoadDataset {
+
+    private static final int CHUNK = 1_000;
+
+    private final HttpClient client;
+    private final LoadContext context;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    public LoadDataset(HttpClient client, LoadContext context) {
+        this.client = client;
+        this.context = context;
+    }
+
+    public void seed(LoadSettings settings, long seed) throws IOException, InterruptedException {
+        SplittableRandom random = new SplittableRandom(seed);
+        send("POST", "/users/batch", context.users(), LoadDataset::user);
+        send("POST", "/films/batch", context.films(), LoadDataset::film);
+        send("PUT", "/films/likes/batch", context.films() * settings.likesPerFilm(), i -> {
+            Like like = new Like();
+            like.setFilmId(random.nextBoolean() ? context.hotFilm(random) : context.film(random));
+            like.setUserId(context.user(random));
+            return like;
+        });
+        send("PUT", "/users/friends/batch", context.users() * settings.friendsPerUser() / 2, i -> {
+            Friendship friendship = new Friendship();
+            friendship.setUserId(context.user(random));
+            friendship.setFriendId(context.otherUser(random, friendship.getUserId()));
+            return friendship;
+        });
+    }
+
+    private void send(String method, String path, int count, IntFunction<Object> items)
+            throws IOException, InterruptedException {
+        for (int from = 0; from < count; from += CHUNK) {
+            List<Object> chunk = new ArrayList<>(Math.min(CHUNK, count - from));
+            for (int i = from; i < Math.min(count, from + CHUNK); i++) {
+                chunk.add(items.apply(i));
+            }
+            HttpRequest request = HttpRequest.newBuilder(context.baseUri().resolve(path))
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(chunk)))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Не удалось заполнить " + path + ": " + response.statusCode()
+                        + " " + response.body());
+            }
+        }
+    }
+
+    private static Film film(int seed) {
+        Film film = new Film();
+        film.setName("Film " + seed);
+        film.setDescription("Description of film " + seed);
+        film.setReleaseDate(LocalDate.of(1950 + seed % 70, 1 + seed % 12, 1 + seed % 28));
+        film.setDuration(60 + seed % 120);
+        return film;
+    }
+
+    private static User user(int seed) {
+        User user = new User();
+        user.setEmail("user" + seed + "@mail.ru");
+        user.setLogin("user" + seed);
+        user.setName("User " + seed);
+        user.setBirthday(LocalDate.of(1960 + seed % 45, 1 + seed % 12, 1 + seed % 28));
+        return user;
+    }
+}
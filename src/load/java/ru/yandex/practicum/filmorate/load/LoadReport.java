@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Отчёт о прогоне: сводка в JSON для сравнения между коммитами и полные
+ * распределения задержек в формате .hgrm для HdrHistogram plotter.
+ */
+public final class LoadReport {
+
+    private static final double MICROS_PER_MILLI = 1_000.0;
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private LoadReport() {
+    }
+
+    public static Path write(Path directory, String label, LoadResult result, Map<String, Object> environment)
+            throws IOException {
+        Files.createDirectories(directory);
+        String name = label + "-" + result.workload().name().toLowerCase(Locale.ROOT);
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        result.operations().forEach((operation, operationResult) ->
+                operations.put(operation, summary(operationResult.histogram(), operationResult.errors())));
+        Histogram total = result.total();
+        operations.put("all", summary(total, result.errors()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", label);
+        report.put("workload", result.workload().name().toLowerCase(Locale.ROOT));
+        report.put("targetRate", result.targetRate());
+        report.put("achievedRate", Math.round(result.achievedRate()));
+        report.put("elapsedSeconds", result.elapsed().toMillis() / 1_000.0);
+        report.put("environment", environment);
+        report.put("operations", operations);
+        Path json = directory.resolve(name + ".json");
+        MAPPER.writeValue(json.toFile(), report);
+
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name + ".hgrm")))) {
+            total.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+        return json;
+    }
+
+    private static Map<String, Object> summary(Histogram histogram, long errors) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("errors", errors);
+        summary.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+        summary.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+        summary.put("p999Ms", millis(histogram.getValueAtPercentile(99.9)));
+        summary.put("maxMs", millis(histogram.getMaxValue()));
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Map;
+
+public record LoadResult(Workload workload, int targetRate, Duration elapsed, Map<String, OperationResult> operations) {
+
+    public Histogram total() {
+        Histogram total = null;
+        for (OperationResult operation : operations.values()) {
+            if (total == null) {
+                total = operation.histogram().copy();
+            } else {
+                total.add(operation.histogram());
+            }
+        }
+        return total;
+    }
+
+    public long requests() {
+        return operations.values().stream().mapToLong(operation -> operation.histogram().getTotalCount()).sum();
+    }
+
+    public long errors() {
+        return operations.values().stream().mapToLong(OperationResult::errors).sum();
+    }
+
+    public double achievedRate() {
+        return requests() * 1_000_000_000.0 / elapsed.toNanos();
+    }
+
+    public double errorRate() {
+        long requests = requests();
+        return requests == 0 ? 0 : (double) errors() / requests;
+    }
+
+    public record OperationResult(Histogram histogram, long errors) {
+    }
+}
@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Параметры прогона, задаются системными свойствами: mvn -Pload verify -Dload.rate=5000.
+ */
+public record LoadSettings(List<Workload> workloads, int rate, Duration warmup, Duration duration, int films,
+                           int users, int likesPerFilm, int friendsPerUser, double maxErrorRate, String label,
+                           Path reportDirectory) {
+
+    public static LoadSettings fromSystemProperties() {
+        List<Workload> workloads = Arrays.stream(property("load.workloads", "browse,premiere,social").split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .map(name -> Workload.valueOf(name.toUpperCase(Locale.ROOT)))
+                .toList();
+        return new LoadSettings(
+                workloads,
+                Integer.parseInt(property("load.rate", "1000")),
+                Duration.parse(property("load.warmup", "PT10S")),
+                Duration.parse(property("load.duration", "PT30S")),
+                Integer.parseInt(property("load.films", "10000")),
+                Integer.parseInt(property("load.users", "10000")),
+                Integer.parseInt(property("load.likes-per-film", "5")),
+                Integer.parseInt(property("load.friends-per-user", "10")),
+                Double.parseDouble(property("load.max-error-rate", "0.01")),
+                property("load.label", "local"),
+                Path.of(property("load.report-directory", "target/load-reports")));
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty(name, defaultValue);
+    }
+}
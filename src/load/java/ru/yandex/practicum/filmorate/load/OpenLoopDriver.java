@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор нагрузки с открытой моделью: запросы отправляются по расписанию с заданной
+ * частотой, не дожидаясь ответов на предыдущие. Задержка считается от запланированного
+ * момента отправки, а не от фактического, поэтому очередь перед приложением и остановки
+ * самого генератора попадают в гистограмму (поправка на coordinated omission).
+ */
+public class OpenLoopDriver {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final int MAX_IN_FLIGHT = 10_000;
+
+    private final HttpClient client;
+    private final LoadContext context;
+
+    public OpenLoopDriver(HttpClient client, LoadContext context) {
+        this.client = client;
+        this.context = context;
+    }
+
+    public LoadResult run(Workload workload, int rate, Duration duration, long seed) {
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        Map<String, LongAdder> errors = new LinkedHashMap<>();
+        for (Workload.Operation operation : workload.operations()) {
+            histograms.put(operation.name(), new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, SIGNIFICANT_DIGITS));
+            errors.put(operation.name(), new LongAdder());
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long requests = duration.toNanos() / interval;
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long intended = start + i * interval;
+            parkUntil(intended);
+            Workload.Operation operation = workload.pick(random);
+            Histogram histogram = histograms.get(operation.name());
+            LongAdder operationErrors = errors.get(operation.name());
+            inFlight.acquireUninterruptibly();
+            client.sendAsync(operation.requests().create(context, random), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+                        histogram.recordValue(Math.min(latency, HIGHEST_LATENCY_MICROS));
+                        if (failure != null || response.statusCode() >= 400) {
+                            operationErrors.increment();
+                        }
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquireUninterruptibly(MAX_IN_FLIGHT);
+        inFlight.release(MAX_IN_FLIGHT);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Map<String, LoadResult.OperationResult> operations = new LinkedHashMap<>();
+        histograms.forEach((name, histogram) ->
+                operations.put(name, new LoadResult.OperationResult(histogram, errors.get(name).sum())));
+        return new LoadResult(workload, rate, elapsed, operations);
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
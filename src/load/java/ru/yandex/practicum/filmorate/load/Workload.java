@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.load;
+
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Смеси запросов. Веса операций задают их долю в потоке.
+ */
+public enum Workload {
+
+    BROWSE(
+            new Operation("GET /films/{id}", 50, (c, r) -> c.get("/films/" + c.film(r))),
+            new Operation("GET /films/popular", 20, (c, r) -> c.get("/films/popular?count=10")),
+            new Operation("GET /films/search", 10, (c, r) -> c.get("/films/search?q=film+" + c.film(r) + "&limit=10")),
+            new Operation("GET /films?after", 10, (c, r) -> c.get("/films?after=" + c.film(r) + "&limit=50")),
+            new Operation("GET /users/{id}/friends", 10, (c, r) -> c.get("/users/" + c.user(r) + "/friends"))),
+
+    PREMIERE(
+            new Operation("PUT /films/{id}/like", 80, (c, r) -> c.put("/films/" + c.hotFilm(r) + "/like/" + c.user(r))),
+            new Operation("DELETE /films/{id}/like", 10,
+                    (c, r) -> c.delete("/films/" + c.hotFilm(r) + "/like/" + c.user(r))),
+            new Operation("GET /films/popular", 10, (c, r) -> c.get("/films/popular?count=10"))),
+
+    SOCIAL(
+            new Operation("PUT /users/{id}/friends", 40, (c, r) -> {
+                int userId = c.user(r);
+                return c.put("/users/" + userId + "/friends/" + c.otherUser(r, userId));
+            }),
+            new Operation("DELETE /users/{id}/friends", 20, (c, r) -> {
+                int userId = c.user(r);
+                return c.delete("/users/" + userId + "/friends/" + c.otherUser(r, userId));
+            }),
+            new Operation("GET /users/{id}/friends/common", 20, (c, r) -> {
+                int userId = c.user(r);
+                return c.get("/users/" + userId + "/friends/common/" + c.otherUser(r, userId));
+            }),
+            new Operation("GET /users/{id}/friends/suggestions", 10,
+                    (c, r) -> c.get("/users/" + c.user(r) + "/friends/suggestions")),
+            new Operation("GET /users/{id}/recommendations", 10,
+                    (c, r) -> c.get("/users/" + c.user(r) + "/recommendations")));
+
+    private final List<Operation> operations;
+    private final int totalWeight;
+
+    Workload(Operation... operations) {
+        this.operations = List.of(operations);
+        this.totalWeight = this.operations.stream().mapToInt(Operation::weight).sum();
+    }
+
+    public List<Operation> operations() {
+        return operations;
+    }
+
+    public Operation pick(SplittableRandom random) {
+        int point = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            point -= operation.weight();
+            if (point < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Пустая смесь запросов " + name());
+    }
+
+    public record Operation(String name, int weight, RequestFactory requests) {
+    }
+
+    @FunctionalInterface
+    public interface RequestFactory {
+        HttpRequest create(LoadContext context, SplittableRandom random);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(JsonCacheProperties.class)
+public class JsonCacheConfiguration {
+
+    @Bean
+    public JsonResponseCache jsonResponseCache(JsonCacheProperties properties, ObjectMapper objectMapper) {
+        return new JsonResponseCache(objectMapper, properties.getMaxSize().toBytes(), properties.getSegments());
+    }
+}
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.json-cache")
+public class JsonCacheProperties {
+
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    private int segments = 16;
+}
@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Кеш готового JSON ответов, ограниченный суммарным размером в байтах. Запись
+ * хранится вместе с тегом версии, с которым она сериализована: если тег сущности
+ * изменился, запись считается промахом и перезаписывается, так что отдельная
+ * инвалидация при изменениях не нужна. Ключи распределены по сегментам, каждый
+ * сегмент — LRU под своим ReentrantLock и со своей долей бюджета.
+ */
+public class JsonResponseCache implements MeterBinder {
+
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final ObjectMapper objectMapper;
+    private final Segment[] segments;
+    private final long segmentBudget;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public JsonResponseCache(ObjectMapper objectMapper, long maxBytes, int segmentCount) {
+        this.objectMapper = objectMapper;
+        this.segments = new Segment[Math.max(1, segmentCount)];
+        this.segmentBudget = maxBytes / segments.length;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * JSON значения для ключа и тега версии; при промахе значение загружается,
+     * сериализуется и кладётся в кеш, если помещается в бюджет сегмента.
+     */
+    public byte[] get(String key, String tag, Supplier<?> value) {
+        Segment segment = segments[Math.floorMod(key.hashCode(), segments.length)];
+        Entry cached = segment.get(key);
+        if (cached != null && cached.tag().equals(tag)) {
+            hits.increment();
+            return cached.json();
+        }
+        misses.increment();
+        byte[] json = serialize(value.get());
+        Entry entry = new Entry(tag, json, ENTRY_OVERHEAD + 2L * key.length() + json.length);
+        if (entry.weight() <= segmentBudget / 4) {
+            segment.put(key, entry);
+        }
+        return json;
+    }
+
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.bytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("filmorate.json.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Обращения к кешу JSON")
+                .register(registry);
+        FunctionCounter.builder("filmorate.json.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Обращения к кешу JSON")
+                .register(registry);
+        FunctionCounter.builder("filmorate.json.cache.evictions", evictions, LongAdder::sum)
+                .description("Записи, вытесненные из кеша JSON")
+                .register(registry);
+        Gauge.builder("filmorate.json.cache.size", this, JsonResponseCache::sizeInBytes)
+                .baseUnit("bytes")
+                .description("Объём кеша JSON")
+                .register(registry);
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        Entry get(String key) {
+            lock.lock();
+            try {
+                return entries.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(String key, Entry entry) {
+            lock.lock();
+            try {
+                Entry previous = entries.put(key, entry);
+                bytes += entry.weight() - (previous == null ? 0 : previous.weight());
+                Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+                while (bytes > segmentBudget && eldest.hasNext()) {
+                    bytes -= eldest.next().getValue().weight();
+                    eldest.remove();
+                    evictions.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long bytes() {
+            lock.lock();
+            try {
+                return bytes;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private record Entry(String tag, byte[] json, long weight) {
+    }
+}
@@ -1,9 +1,20 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.cache.JsonResponseCache;
+import ru.yandex.practicum.filmorate.likes.LikeIngestion;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.popular.PopularityStream;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import java.util.Collection;
@@ -14,7 +25,13 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FilmController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final JsonResponseCache jsonCache;
+    private final LikeIngestion likeIngestion;
+    private final PopularityStream popularityStream;
 
     @PostMapping
     public Film createFilm(@Valid @RequestBody Film film) {
@@ -26,28 +43,90 @@ public class FilmController {
         return filmService.updateFilm(film);
     }
 
+    @PostMapping("/batch")
+    public List<BatchItemResult> createFilms(@RequestBody List<Film> films) {
+        return filmService.createFilms(films);
+    }
+
+    @PutMapping("/likes/batch")
+    public List<BatchItemResult> addLikes(@RequestBody List<Like> likes) {
+        return filmService.addLikes(likes);
+    }
+
     @GetMapping
-    public Collection<Film> getFilms() {
-        return filmService.getFilms();
+    public Collection<Film> getFilms(@RequestParam(required = false) Integer after,
+                                     @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return filmService.getFilms();
+        }
+        return filmService.getFilmsPage(after, limit);
+    }
+
+    /**
+     * Тот же список, что и без stream, но в NDJSON; after и limit применяются так же.
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamFilms(@RequestParam(required = false) Integer after,
+                                                             @RequestParam(required = false) Integer limit) {
+        Collection<Film> films = getFilms(after, limit);
+        StreamingResponseBody body = out -> {
+            for (Film film : films) {
+                out.write(objectMapper.writeValueAsBytes(film));
+                out.write('\n');
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/search")
+    public List<Film> searchFilms(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return filmService.searchFilms(q, limit);
     }
 
     @GetMapping("/{id}")
-    public Film getFilmById(@PathVariable int id) {
-        return filmService.getFilmById(id);
+    public ResponseEntity<byte[]> getFilmById(@PathVariable int id, WebRequest request) {
+        String tag = filmService.getFilmVersionTag(id);
+        if (request.checkNotModified(tag)) {
+            return null;
+        }
+        return json(jsonCache.get("film:" + id, tag, () -> filmService.getFilmById(id)));
     }
 
     @PutMapping("/{id}/like/{userId}")
     public void addLike(@PathVariable int id, @PathVariable int userId) {
-        filmService.addLike(id, userId);
+        likeIngestion.addLike(id, userId);
     }
 
     @DeleteMapping("/{id}/like/{userId}")
     public void removeLike(@PathVariable int id, @PathVariable int userId) {
-        filmService.removeLike(id, userId);
+        likeIngestion.removeLike(id, userId);
     }
 
     @GetMapping("/popular")
-    public List<Film> getPopularFilms(@RequestParam(defaultValue = "10") int count) {
-        return filmService.getPopularFilms(count);
+    public ResponseEntity<byte[]> getPopularFilms(@RequestParam(defaultValue = "10") int count,
+                                                  @RequestParam(required = false) Integer year,
+                                                  @RequestParam(required = false) Integer minDuration,
+                                                  @RequestParam(required = false) Integer maxDuration,
+                                                  WebRequest request) {
+        String tag = filmService.getCatalogVersionTag();
+        if (request.checkNotModified(tag)) {
+            return null;
+        }
+        String key = "popular:" + count + ":" + year + ":" + minDuration + ":" + maxDuration;
+        return json(jsonCache.get(key, tag,
+                () -> filmService.getPopularFilms(count, year, minDuration, maxDuration)));
+    }
+
+    @GetMapping(path = "/popular/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPopularFilms() {
+        return popularityStream.subscribe();
+    }
+
+    private ResponseEntity<byte[]> json(byte[] body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 }
\ No newline at end of file
@@ -1,9 +1,18 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.util.Collection;
@@ -14,7 +23,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final UserService userService;
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public User createUser(@Valid @RequestBody User user) {
@@ -26,13 +39,48 @@ public class UserController {
         return userService.updateUser(user);
     }
 
+    @PostMapping("/batch")
+    public List<BatchItemResult> createUsers(@RequestBody List<User> users) {
+        return userService.createUsers(users);
+    }
+
+    @PutMapping("/friends/batch")
+    public List<BatchItemResult> addFriends(@RequestBody List<Friendship> friendships) {
+        return userService.addFriends(friendships);
+    }
+
     @GetMapping
-    public Collection<User> getUsers() {
-        return userService.getUsers();
+    public Collection<User> getUsers(@RequestParam(required = false) Integer after,
+                                     @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return userService.getUsers();
+        }
+        return userService.getUsersPage(after, limit);
+    }
+
+    /**
+     * Тот же список, что и без stream, но в NDJSON; after и limit применяются так же.
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamUsers(@RequestParam(required = false) Integer after,
+                                                             @RequestParam(required = false) Integer limit) {
+        Collection<User> users = getUsers(after, limit);
+        StreamingResponseBody body = out -> {
+            for (User user : users) {
+                out.write(objectMapper.writeValueAsBytes(user));
+                out.write('\n');
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
     }
 
     @GetMapping("/{id}")
-    public User getUserById(@PathVariable int id) {
+    public User getUserById(@PathVariable int id, WebRequest request) {
+        if (request.checkNotModified(userService.getUserVersionTag(id))) {
+            return null;
+        }
         return userService.getUserById(id);
     }
 
@@ -47,12 +95,36 @@ public class UserController {
     }
 
     @GetMapping("/{id}/friends")
-    public List<User> getFriends(@PathVariable int id) {
+    public List<User> getFriends(@PathVariable int id, WebRequest request) {
+        if (request.checkNotModified(userService.getFriendsVersionTag(id))) {
+            return null;
+        }
         return userService.getFriends(id);
     }
 
+    @GetMapping("/{id}/friends/suggestions")
+    public List<User> getFriendSuggestions(@PathVariable int id, @RequestParam(defaultValue = "10") int limit) {
+        return userService.getFriendSuggestions(id, limit);
+    }
+
+    @GetMapping("/{id}/distance/{otherId}")
+    public List<User> getFriendPath(@PathVariable int id, @PathVariable int otherId,
+                                    @RequestParam(defaultValue = "6") int maxDepth) {
+        return userService.getFriendPath(id, otherId, maxDepth);
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendations(@PathVariable int id, @RequestParam(defaultValue = "10") int limit) {
+        return filmService.getRecommendations(id, limit);
+    }
+
     @GetMapping("/{id}/friends/common/{otherId}")
     public List<User> getCommonFriends(@PathVariable int id, @PathVariable int otherId) {
         return userService.getCommonFriends(id, otherId);
     }
+
+    @GetMapping("/{id}/friends/common/{otherId}/count")
+    public int getCommonFriendsCount(@PathVariable int id, @PathVariable int otherId) {
+        return userService.getCommonFriendsCount(id, otherId);
+    }
 }
\ No newline at end of file
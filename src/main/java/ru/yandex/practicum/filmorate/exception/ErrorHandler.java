@@ -1,5 +1,7 @@
 package ru.yandex.practicum.filmorate.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -13,25 +15,54 @@ import java.util.Map;
 @RestControllerAdvice
 public class ErrorHandler {
 
+    private final Counter notFoundErrors;
+    private final Counter validationErrors;
+    private final Counter argumentNotValidErrors;
+    private final Counter overloadedErrors;
+
+    public ErrorHandler(MeterRegistry registry) {
+        notFoundErrors = errorCounter(registry, "not_found");
+        validationErrors = errorCounter(registry, "validation");
+        argumentNotValidErrors = errorCounter(registry, "argument_not_valid");
+        overloadedErrors = errorCounter(registry, "overloaded");
+    }
+
     @ExceptionHandler(NotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleNotFoundException(NotFoundException e) {
+        notFoundErrors.increment();
         return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler(ValidationException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationException(ValidationException e) {
+        validationErrors.increment();
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(OverloadedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleOverloadedException(OverloadedException e) {
+        overloadedErrors.increment();
         return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, String> handleMethodArgumentNotValid(MethodArgumentNotValidException e) {
+        argumentNotValidErrors.increment();
         Map<String, String> errors = new HashMap<>();
         for (FieldError fieldError : e.getBindingResult().getFieldErrors()) {
             errors.put(fieldError.getField(), fieldError.getDefaultMessage());
         }
         return errors;
     }
+
+    private static Counter errorCounter(MeterRegistry registry, String type) {
+        return Counter.builder("filmorate.errors")
+                .description("Количество ошибок, возвращённых клиенту")
+                .tag("type", type)
+                .register(registry);
+    }
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package ru.yandex.practicum.filmorate.exception;
 
+/**
+ * Отсутствие сущности — ожидаемый ответ, а не сбой: стек не собирается,
+ * чтобы перебор несуществующих id не стоил захвата стека на каждый запрос.
+ */
 public class NotFoundException extends RuntimeException {
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
\ No newline at end of file
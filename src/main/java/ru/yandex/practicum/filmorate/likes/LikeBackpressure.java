@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.likes;
+
+public enum LikeBackpressure {
+    BLOCK,
+    REJECT
+}
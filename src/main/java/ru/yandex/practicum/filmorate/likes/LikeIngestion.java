@@ -0,0 +1,223 @@
+package ru.yandex.practicum.filmorate.likes;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exception.OverloadedException;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Приём лайков. В режиме SYNC лайк применяется в потоке запроса. В режиме ASYNC
+ * запрос только проверяет фильм и пользователя и кладёт событие в ограниченную
+ * очередь, а единственный поток-применитель забирает события пачками, оставляет
+ * для каждой пары (фильм, пользователь) только последнее событие и применяет
+ * изменения одного фильма одним вызовом. С readYourWrites запрос дожидается
+ * применения своей пачки.
+ */
+@Slf4j
+public class LikeIngestion implements MeterBinder {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final FilmService filmService;
+    private final LikeIngestionProperties properties;
+    private final BlockingQueue<LikeEvent> queue;
+    private final Thread applier;
+    private final LongAdder received = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+
+    private volatile boolean running = true;
+
+    public LikeIngestion(FilmService filmService, LikeIngestionProperties properties) {
+        this.filmService = filmService;
+        this.properties = properties;
+        if (properties.getMode() == LikeIngestionMode.ASYNC) {
+            queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+            applier = new Thread(this::applyLoop, "like-applier");
+            applier.setDaemon(true);
+            applier.start();
+        } else {
+            queue = null;
+            applier = null;
+        }
+    }
+
+    public void addLike(int filmId, int userId) {
+        if (queue == null) {
+            filmService.addLike(filmId, userId);
+        } else {
+            submit(filmId, userId, true);
+        }
+    }
+
+    public void removeLike(int filmId, int userId) {
+        if (queue == null) {
+            filmService.removeLike(filmId, userId);
+        } else {
+            submit(filmId, userId, false);
+        }
+    }
+
+    /**
+     * Останавливает приём. События, попавшие в очередь уже после выхода применителя,
+     * применяются в вызывающем потоке, чтобы ожидающие их запросы не зависли.
+     */
+    public void close() {
+        running = false;
+        if (applier == null) {
+            return;
+        }
+        try {
+            applier.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        List<LikeEvent> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            apply(rest);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (queue == null) {
+            return;
+        }
+        Gauge.builder("filmorate.likes.queue", queue, BlockingQueue::size)
+                .description("События лайков, ожидающие применения")
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.events", received, LongAdder::sum)
+                .tag("stage", "received")
+                .description("События лайков")
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.events", applied, LongAdder::sum)
+                .tag("stage", "applied")
+                .description("События лайков")
+                .register(registry);
+    }
+
+    private void submit(int filmId, int userId, boolean liked) {
+        if (!running) {
+            throw new IllegalStateException("Приём лайков остановлен");
+        }
+        filmService.checkLike(filmId, userId);
+        LikeEvent event = new LikeEvent(filmId, userId, liked,
+                properties.isReadYourWrites() ? new CompletableFuture<>() : null);
+        enqueue(event);
+        if (!running && queue.remove(event)) {
+            // Приём остановили, пока событие вставало в очередь, и его уже некому применить.
+            throw new IllegalStateException("Приём лайков остановлен");
+        }
+        received.increment();
+        if (event.done() != null) {
+            try {
+                event.done().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void enqueue(LikeEvent event) {
+        if (properties.getBackpressure() == LikeBackpressure.REJECT) {
+            if (!queue.offer(event)) {
+                throw new OverloadedException("Слишком много лайков, повторите запрос позже");
+            }
+            return;
+        }
+        try {
+            queue.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OverloadedException("Ожидание места в очереди лайков прервано");
+        }
+    }
+
+    private void applyLoop() {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<LikeEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                LikeEvent first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                running = false;
+                queue.drainTo(batch);
+            }
+            apply(batch);
+            batch.clear();
+        }
+    }
+
+    private void apply(List<LikeEvent> batch) {
+        Map<Long, LikeEvent> latest = new HashMap<>();
+        for (LikeEvent event : batch) {
+            latest.put(((long) event.filmId() << 32) | event.userId(), event);
+        }
+        Map<Integer, FilmChanges> changes = new HashMap<>();
+        for (LikeEvent event : latest.values()) {
+            changes.computeIfAbsent(event.filmId(), filmId -> new FilmChanges()).add(event);
+        }
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        changes.forEach((filmId, filmChanges) -> {
+            try {
+                filmService.applyLikes(filmId, filmChanges.liked.build().toArray(),
+                        filmChanges.unliked.build().toArray());
+            } catch (RuntimeException e) {
+                log.error("Не удалось применить лайки фильма {}", filmId, e);
+                failures.put(filmId, e);
+            }
+        });
+        applied.add(latest.size());
+        for (LikeEvent event : batch) {
+            if (event.done() != null) {
+                RuntimeException failure = failures.get(event.filmId());
+                if (failure == null) {
+                    event.done().complete(null);
+                } else {
+                    event.done().completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    private static final class FilmChanges {
+
+        private final IntStream.Builder liked = IntStream.builder();
+        private final IntStream.Builder unliked = IntStream.builder();
+
+        void add(LikeEvent event) {
+            if (event.liked()) {
+                liked.add(event.userId());
+            } else {
+                unliked.add(event.userId());
+            }
+        }
+    }
+
+    private record LikeEvent(int filmId, int userId, boolean liked, CompletableFuture<Void> done) {
+    }
+}
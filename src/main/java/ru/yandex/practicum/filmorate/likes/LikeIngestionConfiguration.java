@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.likes;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+@Configuration
+@EnableConfigurationProperties(LikeIngestionProperties.class)
+public class LikeIngestionConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public LikeIngestion likeIngestion(FilmService filmService, LikeIngestionProperties properties) {
+        return new LikeIngestion(filmService, properties);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.likes;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.likes")
+public class LikeIngestionProperties {
+
+    private LikeIngestionMode mode = LikeIngestionMode.SYNC;
+
+    private int queueCapacity = 65_536;
+
+    private int batchSize = 4_096;
+
+    private LikeBackpressure backpressure = LikeBackpressure.BLOCK;
+
+    private boolean readYourWrites;
+}
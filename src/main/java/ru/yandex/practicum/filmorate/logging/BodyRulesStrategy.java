@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Strategy;
+import org.zalando.logbook.core.Conditions;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Не буферизует тела обменов, подпадающих под правила вида "GET /films"
+ * или "/films/popular" (метод необязателен), остальные логирует целиком.
+ */
+class BodyRulesStrategy implements Strategy {
+
+    private final Predicate<HttpRequest> withoutBody;
+
+    BodyRulesStrategy(List<String> rules) {
+        withoutBody = rules.stream()
+                .map(BodyRulesStrategy::rule)
+                .reduce(Predicate::or)
+                .orElse(request -> false);
+    }
+
+    @Override
+    public HttpRequest process(HttpRequest request) throws IOException {
+        return withoutBody.test(request) ? request.withoutBody() : request.withBody();
+    }
+
+    @Override
+    public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+        return withoutBody.test(request) ? response.withoutBody() : response.withBody();
+    }
+
+    private static Predicate<HttpRequest> rule(String rule) {
+        String[] parts = rule.trim().split("\\s+", 2);
+        if (parts.length == 1) {
+            return Conditions.requestTo(parts[0]);
+        }
+        Predicate<HttpRequest> method = Conditions.requestWithMethod(parts[0]);
+        return method.and(Conditions.requestTo(parts[1]));
+    }
+}
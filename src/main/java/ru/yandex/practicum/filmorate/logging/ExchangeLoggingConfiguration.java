@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.Strategy;
+
+import java.util.function.Predicate;
+
+/**
+ * Выборочное логирование HTTP-обменов поверх Logbook: доля логируемых чтений
+ * и записей, правила без тел и ограничение размера тела (logbook.write.max-body-size).
+ * Запись в лог идёт через асинхронный аппендер из logback-spring.xml.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "filmorate.logging", name = "mode", havingValue = "sampled", matchIfMissing = true)
+@EnableConfigurationProperties(ExchangeLoggingProperties.class)
+public class ExchangeLoggingConfiguration {
+
+    @Bean
+    public Predicate<HttpRequest> requestCondition(ExchangeLoggingProperties properties) {
+        return new SamplingCondition(properties);
+    }
+
+    @Bean
+    public Strategy strategy(ExchangeLoggingProperties properties) {
+        return new BodyRulesStrategy(properties.getWithoutBody());
+    }
+}
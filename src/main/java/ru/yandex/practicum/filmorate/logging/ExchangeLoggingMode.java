@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.logging;
+
+public enum ExchangeLoggingMode {
+    FULL,
+    SAMPLED
+}
@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.logging")
+public class ExchangeLoggingProperties {
+
+    private ExchangeLoggingMode mode = ExchangeLoggingMode.SAMPLED;
+
+    private double readSampleRate = 0.01;
+
+    private double writeSampleRate = 1.0;
+
+    private List<String> withoutBody = List.of();
+
+    private int queueSize = 8192;
+}
@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.zalando.logbook.HttpRequest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Решает до начала обработки, попадёт ли обмен в лог. Невыбранные запросы
+ * проходят мимо Logbook целиком: их тела не буферизуются и не форматируются.
+ */
+class SamplingCondition implements Predicate<HttpRequest> {
+
+    private final double readSampleRate;
+    private final double writeSampleRate;
+
+    SamplingCondition(ExchangeLoggingProperties properties) {
+        readSampleRate = properties.getReadSampleRate();
+        writeSampleRate = properties.getWriteSampleRate();
+    }
+
+    @Override
+    public boolean test(HttpRequest request) {
+        return sampled(isRead(request.getMethod()) ? readSampleRate : writeSampleRate);
+    }
+
+    private static boolean isRead(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    private static boolean sampled(double rate) {
+        return rate >= 1.0 || rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+}
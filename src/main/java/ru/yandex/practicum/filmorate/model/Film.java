@@ -6,8 +6,7 @@ import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Collection;
 
 @Data
 public class Film {
@@ -25,5 +24,20 @@ public class Film {
     @Positive(message = "Продолжительность фильма должна быть положительной")
     private int duration;
 
-    private Set<Integer> likes = new HashSet<>();
+    private IdSet likes = new IdSet();
+
+    public void setLikes(Collection<Integer> likes) {
+        this.likes = new IdSet(likes);
+    }
+
+    public Film withLikes(IdSet likes) {
+        Film copy = new Film();
+        copy.id = id;
+        copy.name = name;
+        copy.description = description;
+        copy.releaseDate = releaseDate;
+        copy.duration = duration;
+        copy.likes = likes;
+        return copy;
+    }
 }
\ No newline at end of file
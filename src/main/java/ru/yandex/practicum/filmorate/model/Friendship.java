@@ -0,0 +1,11 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+@Data
+public class Friendship {
+
+    private int userId;
+
+    private int friendId;
+}
@@ -0,0 +1,666 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntConsumer;
+
+/**
+ * Компактное потокобезопасное множество идентификаторов без упаковки в Integer.
+ * Идентификаторы делятся на блоки по старшим 16 битам: небольшой блок хранится
+ * отсортированным массивом char, заполненный блок переключается на битовую карту.
+ * В JSON сериализуется так же, как обычный Set&lt;Integer&gt;.
+ */
+public class IdSet extends AbstractSet<Integer> {
+
+    private static final int ARRAY_CHUNK_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1024;
+    private static final char[] NO_KEYS = new char[0];
+    private static final Chunk[] NO_CHUNKS = new Chunk[0];
+
+    private final StampedLock lock = new StampedLock();
+    private char[] keys = NO_KEYS;
+    private Chunk[] chunks = NO_CHUNKS;
+    private int chunkCount;
+    private int size;
+
+    public IdSet() {
+    }
+
+    public IdSet(Collection<Integer> ids) {
+        if (ids instanceof IdSet other) {
+            IdSet copy = other.copy();
+            keys = copy.keys;
+            chunks = copy.chunks;
+            chunkCount = copy.chunkCount;
+            size = copy.size;
+        } else if (ids != null) {
+            addAll(ids);
+        }
+    }
+
+    public boolean add(int id) {
+        return addAndGetSize(id) >= 0;
+    }
+
+    public boolean remove(int id) {
+        return removeAndGetSize(id) >= 0;
+    }
+
+    /**
+     * Добавляет id и возвращает размер множества сразу после добавления
+     * или -1, если id уже был в множестве.
+     */
+    public int addAndGetSize(int id) {
+        long stamp = lock.writeLock();
+        try {
+            char high = high(id);
+            int index = chunkIndex(high);
+            if (index < 0) {
+                index = -index - 1;
+                insertChunk(index, high);
+            }
+            if (!chunks[index].add(low(id))) {
+                return -1;
+            }
+            return ++size;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Удаляет id и возвращает размер множества сразу после удаления
+     * или -1, если id в множестве не было.
+     */
+    public int removeAndGetSize(int id) {
+        long stamp = lock.writeLock();
+        try {
+            int index = chunkIndex(high(id));
+            if (index < 0 || !chunks[index].remove(low(id))) {
+                return -1;
+            }
+            size--;
+            if (chunks[index].cardinality == 0) {
+                removeChunk(index);
+            }
+            return size;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean contains(int id) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                boolean result = containsUnlocked(id);
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Оптимистичное чтение попало на параллельную запись, повторяем под блокировкой.
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return containsUnlocked(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Копия с добавленным идентификатором, разделяющая с этим множеством все блоки,
+     * кроме изменённого. Годится только для неизменяемых версий: ни исходное
+     * множество, ни результат после этого нельзя менять через add/remove.
+     */
+    public IdSet with(int id) {
+        long stamp = lock.readLock();
+        try {
+            if (containsUnlocked(id)) {
+                return this;
+            }
+            IdSet result = shallowCopy();
+            char high = high(id);
+            int index = result.chunkIndex(high);
+            if (index < 0) {
+                index = -index - 1;
+                result.insertChunk(index, high);
+            } else {
+                result.chunks[index] = result.chunks[index].copy();
+            }
+            result.chunks[index].add(low(id));
+            result.size++;
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Копия без идентификатора, с теми же ограничениями, что и {@link #with(int)}.
+     */
+    public IdSet without(int id) {
+        long stamp = lock.readLock();
+        try {
+            if (!containsUnlocked(id)) {
+                return this;
+            }
+            IdSet result = shallowCopy();
+            int index = result.chunkIndex(high(id));
+            result.chunks[index] = result.chunks[index].copy();
+            result.chunks[index].remove(low(id));
+            result.size--;
+            if (result.chunks[index].cardinality == 0) {
+                result.removeChunk(index);
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int[] toIntArray() {
+        return toIntArray(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Не больше limit наименьших идентификаторов, без копирования остальных.
+     */
+    public int[] toIntArray(int limit) {
+        long stamp = lock.readLock();
+        try {
+            int[] result = new int[Math.min(size, Math.max(limit, 0))];
+            int offset = 0;
+            for (int i = 0; i < chunkCount && offset < result.length; i++) {
+                offset = chunks[i].copyTo(keys[i] << 16, result, offset);
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Обходит идентификаторы по возрастанию без копирования всего множества: под
+     * блокировкой копируется только очередной блок, и действие вызывается уже без неё.
+     * Изменения, сделанные во время обхода, могут быть видны частично.
+     */
+    public void forEachId(IntConsumer action) {
+        int[] buffer = new int[0];
+        int nextKey = 0;
+        while (nextKey <= Character.MAX_VALUE) {
+            int count;
+            long stamp = lock.readLock();
+            try {
+                int index = chunkIndex((char) nextKey);
+                if (index < 0) {
+                    index = -index - 1;
+                }
+                if (index >= chunkCount) {
+                    return;
+                }
+                Chunk chunk = chunks[index];
+                if (buffer.length < chunk.cardinality) {
+                    buffer = new int[Math.max(chunk.cardinality, Math.min(buffer.length * 2, 1 << 16))];
+                }
+                count = chunk.copyTo(keys[index] << 16, buffer, 0);
+                nextKey = keys[index] + 1;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            for (int i = 0; i < count; i++) {
+                action.accept(buffer[i]);
+            }
+        }
+    }
+
+    /**
+     * Случайная равномерная выборка не больше limit идентификаторов в порядке
+     * возрастания. Копируются только выбранные идентификаторы: блоки, в которые не
+     * попала ни одна выбранная позиция, пропускаются по размеру.
+     */
+    public int[] sample(int limit) {
+        long stamp = lock.readLock();
+        try {
+            if (limit >= size) {
+                int[] result = new int[size];
+                int offset = 0;
+                for (int i = 0; i < chunkCount; i++) {
+                    offset = chunks[i].copyTo(keys[i] << 16, result, offset);
+                }
+                return result;
+            }
+            int[] ranks = randomRanks(size, Math.max(limit, 0));
+            int[] result = new int[ranks.length];
+            int next = 0;
+            int rankBase = 0;
+            for (int i = 0; i < chunkCount && next < ranks.length; i++) {
+                next = chunks[i].select(keys[i] << 16, rankBase, ranks, next, result);
+                rankBase += chunks[i].cardinality;
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int[] intersect(IdSet other) {
+        IdSet smaller = size() <= other.size() ? this : other;
+        IdSet copy = smaller.copy();
+        int[] result = new int[copy.size];
+        return Arrays.copyOf(result, intersect(copy, smaller == this ? other : this, result));
+    }
+
+    public int intersectionSize(IdSet other) {
+        IdSet smaller = size() <= other.size() ? this : other;
+        return intersect(smaller.copy(), smaller == this ? other : this, null);
+    }
+
+    public long sizeInBytes() {
+        long stamp = lock.readLock();
+        try {
+            long bytes = 48 + 16 + 2L * keys.length + 16 + 4L * chunks.length;
+            for (int i = 0; i < chunkCount; i++) {
+                bytes += chunks[i].sizeInBytes();
+            }
+            return bytes;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean add(Integer id) {
+        return add(id.intValue());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Integer id && remove(id.intValue());
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer id && contains(id.intValue());
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int result = size;
+        if (lock.validate(stamp)) {
+            return result;
+        }
+        stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            keys = NO_KEYS;
+            chunks = NO_CHUNKS;
+            chunkCount = 0;
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        int[] snapshot = toIntArray();
+        return new Iterator<>() {
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return position < snapshot.length;
+            }
+
+            @Override
+            public Integer next() {
+                if (position >= snapshot.length) {
+                    throw new NoSuchElementException();
+                }
+                return snapshot[position++];
+            }
+
+            @Override
+            public void remove() {
+                if (position == 0) {
+                    throw new IllegalStateException();
+                }
+                IdSet.this.remove(snapshot[position - 1]);
+            }
+        };
+    }
+
+    private static int intersect(IdSet copy, IdSet larger, int[] target) {
+        long stamp = larger.lock.readLock();
+        try {
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < copy.chunkCount && j < larger.chunkCount) {
+                if (copy.keys[i] < larger.keys[j]) {
+                    i++;
+                } else if (copy.keys[i] > larger.keys[j]) {
+                    j++;
+                } else {
+                    count = copy.chunks[i].intersect(larger.chunks[j], copy.keys[i] << 16, target, count);
+                    i++;
+                    j++;
+                }
+            }
+            return count;
+        } finally {
+            larger.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * limit различных случайных позиций из [0, size) по возрастанию. Если нужна больше
+     * чем половина позиций, они отбираются одним проходом, иначе случайные позиции
+     * дозаполняются, пока не станут различными.
+     */
+    private static int[] randomRanks(int size, int limit) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] ranks = new int[limit];
+        if (limit * 2 > size) {
+            int count = 0;
+            for (int rank = 0; rank < size && count < limit; rank++) {
+                if (random.nextInt(size - rank) < limit - count) {
+                    ranks[count++] = rank;
+                }
+            }
+            return ranks;
+        }
+        int distinct = 0;
+        while (distinct < limit) {
+            for (int i = distinct; i < limit; i++) {
+                ranks[i] = random.nextInt(size);
+            }
+            Arrays.sort(ranks);
+            distinct = 1;
+            for (int i = 1; i < limit; i++) {
+                if (ranks[i] != ranks[distinct - 1]) {
+                    ranks[distinct++] = ranks[i];
+                }
+            }
+        }
+        return ranks;
+    }
+
+    private IdSet copy() {
+        IdSet copy = new IdSet();
+        long stamp = lock.readLock();
+        try {
+            copy.keys = Arrays.copyOf(keys, chunkCount);
+            copy.chunks = new Chunk[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                copy.chunks[i] = chunks[i].copy();
+            }
+            copy.chunkCount = chunkCount;
+            copy.size = size;
+            return copy;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private IdSet shallowCopy() {
+        IdSet copy = new IdSet();
+        copy.keys = Arrays.copyOf(keys, chunkCount);
+        copy.chunks = Arrays.copyOf(chunks, chunkCount);
+        copy.chunkCount = chunkCount;
+        copy.size = size;
+        return copy;
+    }
+
+    private boolean containsUnlocked(int id) {
+        int index = chunkIndex(high(id));
+        return index >= 0 && chunks[index].contains(low(id));
+    }
+
+    private int chunkIndex(char high) {
+        return Arrays.binarySearch(keys, 0, chunkCount, high);
+    }
+
+    private void insertChunk(int index, char high) {
+        if (chunkCount == keys.length) {
+            int capacity = Math.max(4, chunkCount * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            chunks = Arrays.copyOf(chunks, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, chunkCount - index);
+        System.arraycopy(chunks, index, chunks, index + 1, chunkCount - index);
+        keys[index] = high;
+        chunks[index] = new Chunk();
+        chunkCount++;
+    }
+
+    private void removeChunk(int index) {
+        System.arraycopy(keys, index + 1, keys, index, chunkCount - index - 1);
+        System.arraycopy(chunks, index + 1, chunks, index, chunkCount - index - 1);
+        chunkCount--;
+        chunks[chunkCount] = null;
+    }
+
+    private static char high(int id) {
+        return (char) (id >>> 16);
+    }
+
+    private static char low(int id) {
+        return (char) id;
+    }
+
+    private static final class Chunk {
+
+        private char[] values = new char[4];
+        private long[] bitmap;
+        private int cardinality;
+
+        boolean contains(char low) {
+            if (bitmap != null) {
+                return (bitmap[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        boolean add(char low) {
+            if (bitmap != null) {
+                long mask = 1L << low;
+                if ((bitmap[low >>> 6] & mask) != 0) {
+                    return false;
+                }
+                bitmap[low >>> 6] |= mask;
+                cardinality++;
+                return true;
+            }
+            int position = Arrays.binarySearch(values, 0, cardinality, low);
+            if (position >= 0) {
+                return false;
+            }
+            if (cardinality == ARRAY_CHUNK_LIMIT) {
+                toBitmap();
+                return add(low);
+            }
+            position = -position - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_CHUNK_LIMIT, values.length * 2));
+            }
+            System.arraycopy(values, position, values, position + 1, cardinality - position);
+            values[position] = low;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (bitmap != null) {
+                long mask = 1L << low;
+                if ((bitmap[low >>> 6] & mask) == 0) {
+                    return false;
+                }
+                bitmap[low >>> 6] &= ~mask;
+                cardinality--;
+                if (cardinality <= ARRAY_CHUNK_LIMIT / 2) {
+                    toArray();
+                }
+                return true;
+            }
+            int position = Arrays.binarySearch(values, 0, cardinality, low);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(values, position + 1, values, position, cardinality - position - 1);
+            cardinality--;
+            if (values.length > 16 && cardinality < values.length / 4) {
+                values = Arrays.copyOf(values, values.length / 2);
+            }
+            return true;
+        }
+
+        int copyTo(int base, int[] target, int offset) {
+            if (bitmap == null) {
+                for (int i = 0; i < cardinality && offset < target.length; i++) {
+                    target[offset++] = base | values[i];
+                }
+                return offset;
+            }
+            for (int word = 0; word < BITMAP_WORDS && offset < target.length; word++) {
+                long bits = bitmap[word];
+                while (bits != 0 && offset < target.length) {
+                    target[offset++] = base | (word << 6) | Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                }
+            }
+            return offset;
+        }
+
+        /**
+         * Записывает в target идентификаторы на позициях ranks, начиная с from, пока
+         * позиции попадают в этот блок; rankBase — позиция первого элемента блока.
+         * Возвращает индекс первой позиции за пределами блока.
+         */
+        int select(int base, int rankBase, int[] ranks, int from, int[] target) {
+            int next = from;
+            if (bitmap == null) {
+                while (next < ranks.length && ranks[next] - rankBase < cardinality) {
+                    target[next] = base | values[ranks[next] - rankBase];
+                    next++;
+                }
+                return next;
+            }
+            int seen = rankBase;
+            for (int word = 0; word < BITMAP_WORDS && next < ranks.length; word++) {
+                int count = Long.bitCount(bitmap[word]);
+                while (next < ranks.length && ranks[next] < seen + count) {
+                    long bits = bitmap[word];
+                    for (int skip = ranks[next] - seen; skip > 0; skip--) {
+                        bits &= bits - 1;
+                    }
+                    target[next++] = base | (word << 6) | Long.numberOfTrailingZeros(bits);
+                }
+                seen += count;
+            }
+            return next;
+        }
+
+        Chunk copy() {
+            Chunk copy = new Chunk();
+            copy.values = values != null ? Arrays.copyOf(values, Math.max(4, cardinality)) : null;
+            copy.bitmap = bitmap != null ? bitmap.clone() : null;
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        int intersect(Chunk other, int base, int[] target, int offset) {
+            if (bitmap != null && other.bitmap != null) {
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    long bits = bitmap[word] & other.bitmap[word];
+                    if (target == null) {
+                        offset += Long.bitCount(bits);
+                        continue;
+                    }
+                    while (bits != 0) {
+                        target[offset++] = base | (word << 6) | Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                    }
+                }
+                return offset;
+            }
+            if (bitmap != null) {
+                return other.intersect(this, base, target, offset);
+            }
+            if (other.bitmap != null) {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        offset = emit(base | values[i], target, offset);
+                    }
+                }
+                return offset;
+            }
+            if (cardinality > other.cardinality) {
+                return other.intersect(this, base, target, offset);
+            }
+            int from = 0;
+            for (int i = 0; i < cardinality && from < other.cardinality; i++) {
+                int position = Arrays.binarySearch(other.values, from, other.cardinality, values[i]);
+                if (position >= 0) {
+                    offset = emit(base | values[i], target, offset);
+                    from = position + 1;
+                } else {
+                    from = -position - 1;
+                }
+            }
+            return offset;
+        }
+
+        private static int emit(int id, int[] target, int offset) {
+            if (target != null) {
+                target[offset] = id;
+            }
+            return offset + 1;
+        }
+
+        long sizeInBytes() {
+            return bitmap != null ? 24 + 16 + 8L * BITMAP_WORDS : 24 + 16 + 2L * values.length;
+        }
+
+        private void toBitmap() {
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                char value = values[i];
+                words[value >>> 6] |= 1L << value;
+            }
+            bitmap = words;
+            values = null;
+        }
+
+        private void toArray() {
+            char[] array = new char[Math.max(4, cardinality * 2)];
+            int offset = 0;
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                long bits = bitmap[word];
+                while (bits != 0) {
+                    array[offset++] = (char) ((word << 6) | Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            values = array;
+            bitmap = null;
+        }
+    }
+}
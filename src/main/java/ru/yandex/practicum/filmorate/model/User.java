@@ -6,8 +6,7 @@ import jakarta.validation.constraints.PastOrPresent;
 import lombok.Data;
 
 import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Collection;
 
 @Data
 public class User {
@@ -26,5 +25,20 @@ public class User {
     @PastOrPresent(message = "Дата рождения не может быть в будущем")
     private LocalDate birthday;
 
-    private Set<Integer> friends = new HashSet<>();
+    private IdSet friends = new IdSet();
+
+    public void setFriends(Collection<Integer> friends) {
+        this.friends = new IdSet(friends);
+    }
+
+    public User withFriends(IdSet friends) {
+        User copy = new User();
+        copy.id = id;
+        copy.email = email;
+        copy.login = login;
+        copy.name = name;
+        copy.birthday = birthday;
+        copy.friends = friends;
+        return copy;
+    }
 }
\ No newline at end of file
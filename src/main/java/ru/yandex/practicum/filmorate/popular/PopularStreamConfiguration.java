@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.popular;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+@Configuration
+@EnableConfigurationProperties(PopularStreamProperties.class)
+public class PopularStreamConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public PopularityStream popularityStream(FilmService filmService, ObjectMapper objectMapper,
+                                             PopularStreamProperties properties) {
+        return new PopularityStream(filmService, objectMapper, properties);
+    }
+}
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.popular;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.popular-stream")
+public class PopularStreamProperties {
+
+    private Duration tick = Duration.ofMillis(250);
+
+    private int count = 10;
+
+    private int maxSubscribers = 10_000;
+
+    private Duration timeout = Duration.ofMinutes(30);
+
+    private int senderThreads = 16;
+
+    private Duration sendTimeout = Duration.ofSeconds(5);
+}
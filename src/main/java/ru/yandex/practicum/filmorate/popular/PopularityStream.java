@@ -0,0 +1,446 @@
+package ru.yandex.practicum.filmorate.popular;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.filmorate.exception.OverloadedException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Рассылка изменений рейтинга популярных фильмов по SSE. Раз в тик, если каталог
+ * изменился, рейтинг считается один раз на всех подписчиков и сериализуется в два
+ * сообщения: полный снимок и изменённые позиции. Подписчик, получивший предыдущую
+ * версию, получает изменения, остальные — снимок. Медленному подписчику не копится
+ * очередь: неотправленная версия заменяется более новой, и после задержки он
+ * получает снимок. Потоки рассылки запускаются при первой подписке.
+ * <p>
+ * Отправка в SseEmitter блокирующая, и клиент с заполненным TCP-буфером занимает поток
+ * рассылки. Поэтому каждый тик проверяет, не висит ли отправка дольше sendTimeout:
+ * такой подписчик отключается, а поток, занятый им, прерывается, чтобы несколько
+ * медленных клиентов не заняли весь пул и не остановили рассылку остальным.
+ */
+@Slf4j
+public class PopularityStream implements MeterBinder {
+
+    static final String SNAPSHOT = "snapshot";
+    static final String DELTA = "delta";
+
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final PopularStreamProperties properties;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberSlots = new AtomicInteger();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    private volatile Executor senders;
+    private ScheduledExecutorService ticker;
+    private volatile boolean started;
+    private volatile boolean closed;
+    private volatile Tick current;
+    private String catalogTag;
+    private long publishedVersion;
+
+    public PopularityStream(FilmService filmService, ObjectMapper objectMapper, PopularStreamProperties properties) {
+        this(filmService, objectMapper, properties, null);
+    }
+
+    /**
+     * @param senders исполнитель отправки подписчикам; если null, при первой подписке
+     *                создаётся пул из senderThreads потоков
+     */
+    PopularityStream(FilmService filmService, ObjectMapper objectMapper, PopularStreamProperties properties,
+                     Executor senders) {
+        this.filmService = filmService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.senders = senders;
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = subscribe(new EmitterSink(emitter));
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    public void close() {
+        lifecycleLock.lock();
+        try {
+            closed = true;
+            if (ticker != null) {
+                ticker.shutdownNow();
+            }
+            if (senders instanceof ExecutorService service) {
+                service.shutdownNow();
+            }
+        } finally {
+            lifecycleLock.unlock();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.sink.close();
+            unsubscribe(subscriber);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.popular.stream.subscribers", subscribers, Set::size)
+                .description("Подписчики на изменения рейтинга")
+                .register(registry);
+        FunctionCounter.builder("filmorate.popular.stream.ticks", ticks, LongAdder::sum)
+                .description("Пересчёты рейтинга для подписчиков")
+                .register(registry);
+        FunctionCounter.builder("filmorate.popular.stream.events", sent, LongAdder::sum)
+                .tag("result", "sent")
+                .description("Сообщения подписчикам")
+                .register(registry);
+        FunctionCounter.builder("filmorate.popular.stream.events", dropped, LongAdder::sum)
+                .tag("result", "dropped")
+                .description("Сообщения подписчикам")
+                .register(registry);
+        FunctionCounter.builder("filmorate.popular.stream.evicted", evicted, LongAdder::sum)
+                .description("Подписчики, отключённые из-за зависшей отправки")
+                .register(registry);
+    }
+
+    Subscriber subscribe(Sink sink) {
+        if (subscriberSlots.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscriberSlots.decrementAndGet();
+            throw new OverloadedException("Слишком много подписчиков на рейтинг, повторите запрос позже");
+        }
+        Subscriber subscriber = new Subscriber(sink);
+        try {
+            start();
+        } catch (RuntimeException e) {
+            subscriberSlots.decrementAndGet();
+            throw e;
+        }
+        subscribers.add(subscriber);
+        try {
+            subscriber.offer(refresh());
+        } catch (RuntimeException e) {
+            unsubscribe(subscriber);
+            throw e;
+        }
+        return subscriber;
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    void tick() {
+        try {
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            evictStalled();
+            Tick tick = refresh();
+            refreshLock.lock();
+            try {
+                if (tick.version() <= publishedVersion) {
+                    return;
+                }
+                publishedVersion = tick.version();
+            } finally {
+                refreshLock.unlock();
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(tick);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Не удалось разослать рейтинг", e);
+        }
+    }
+
+    /**
+     * Отключает подписчиков, отправка которым длится дольше sendTimeout.
+     */
+    private void evictStalled() {
+        long now = System.nanoTime();
+        long timeout = properties.getSendTimeout().toNanos();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.evictIfStalled(now, timeout)) {
+                unsubscribe(subscriber);
+                evicted.increment();
+                log.debug("Подписчик на рейтинг отключён: отправка дольше {}", properties.getSendTimeout());
+            }
+        }
+    }
+
+    private void start() {
+        if (started && !closed) {
+            return;
+        }
+        lifecycleLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Рассылка рейтинга остановлена");
+            }
+            if (started) {
+                return;
+            }
+            if (senders == null) {
+                senders = Executors.newFixedThreadPool(properties.getSenderThreads(), daemon("popular-stream-sender"));
+            }
+            ticker = Executors.newSingleThreadScheduledExecutor(daemon("popular-stream-ticker"));
+            long period = properties.getTick().toMillis();
+            ticker.scheduleAtFixedRate(this::tick, period, period, TimeUnit.MILLISECONDS);
+            started = true;
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    /**
+     * Освобождает место подписчика ровно один раз, какой бы из путей отключения ни сработал.
+     */
+    private void unsubscribe(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriberSlots.decrementAndGet();
+        }
+    }
+
+    /**
+     * Текущая версия рейтинга; пересчитывается, только если каталог изменился,
+     * и получает новый номер, только если изменились первые count позиций.
+     */
+    private Tick refresh() {
+        refreshLock.lock();
+        try {
+            String tag = filmService.getCatalogVersionTag();
+            if (current != null && tag.equals(catalogTag)) {
+                return current;
+            }
+            catalogTag = tag;
+            List<Entry> ranking = filmService.getPopularFilms(properties.getCount()).stream()
+                    .map(Entry::of)
+                    .toList();
+            ticks.increment();
+            Tick previous = current;
+            if (previous != null && previous.ranking().equals(ranking)) {
+                return previous;
+            }
+            long version = previous == null ? 1 : previous.version() + 1;
+            List<Entry> before = previous == null ? List.of() : previous.ranking();
+            List<Change> changes = new ArrayList<>();
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                Entry entry = ranking.get(rank);
+                if (rank >= before.size() || !before.get(rank).equals(entry)) {
+                    changes.add(new Change(rank, entry.id(), entry.name(), entry.likes()));
+                }
+            }
+            current = new Tick(version, ranking,
+                    json(new Snapshot(version, ranking)),
+                    json(new Delta(version, ranking.size(), changes)));
+            return current;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private String json(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    interface Sink {
+        void send(String event, long version, String data) throws IOException;
+
+        void close();
+    }
+
+    record Entry(int id, String name, int likes) {
+        static Entry of(Film film) {
+            return new Entry(film.getId(), film.getName(), film.getLikes().size());
+        }
+    }
+
+    record Change(int rank, int id, String name, int likes) {
+    }
+
+    record Snapshot(long version, List<Entry> films) {
+    }
+
+    record Delta(long version, int size, List<Change> changes) {
+    }
+
+    private record Tick(long version, List<Entry> ranking, String snapshot, String delta) {
+    }
+
+    /**
+     * Очередь подписчика — одна ячейка с последней неотправленной версией.
+     * Отправкой одного подписчика в каждый момент занят не больше чем один поток.
+     */
+    final class Subscriber {
+
+        private final Sink sink;
+        private final AtomicReference<Tick> pending = new AtomicReference<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final ReentrantLock sendLock = new ReentrantLock();
+        private long sentVersion;
+        private Thread sendingThread;
+        private long sendStarted;
+        private boolean evicted;
+
+        private Subscriber(Sink sink) {
+            this.sink = sink;
+        }
+
+        private void offer(Tick tick) {
+            Tick replaced = pending.getAndAccumulate(tick,
+                    (queued, offered) -> queued == null || offered.version() > queued.version() ? offered : queued);
+            if (replaced != null && !Objects.equals(replaced, tick)) {
+                dropped.increment();
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Tick tick = pending.getAndSet(null);
+                if (tick == null) {
+                    draining.set(false);
+                    if (pending.get() == null || !draining.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                if (tick.version() <= sentVersion) {
+                    continue;
+                }
+                boolean delta = sentVersion != 0 && tick.version() == sentVersion + 1;
+                try {
+                    send(delta ? DELTA : SNAPSHOT, tick.version(), delta ? tick.delta() : tick.snapshot());
+                } catch (IOException | RuntimeException e) {
+                    unsubscribe(this);
+                    log.debug("Подписчик на рейтинг отключён: {}", e.getMessage());
+                    return;
+                }
+                sentVersion = tick.version();
+                sent.increment();
+            }
+        }
+
+        /**
+         * Отправляет сообщение, отмечая поток и начало отправки для {@link #evictIfStalled}.
+         * Прерывание от отключения снимается здесь же, чтобы не задеть следующую задачу потока.
+         */
+        private void send(String event, long version, String data) throws IOException {
+            sendLock.lock();
+            try {
+                if (evicted) {
+                    throw new IOException("отправка дольше допустимого");
+                }
+                sendingThread = Thread.currentThread();
+                sendStarted = System.nanoTime();
+            } finally {
+                sendLock.unlock();
+            }
+            boolean stalled;
+            try {
+                sink.send(event, version, data);
+            } finally {
+                sendLock.lock();
+                try {
+                    sendingThread = null;
+                    stalled = evicted;
+                    if (stalled) {
+                        Thread.interrupted();
+                    }
+                } finally {
+                    sendLock.unlock();
+                }
+                if (stalled) {
+                    sink.close();
+                }
+            }
+            if (stalled) {
+                throw new IOException("отправка дольше допустимого");
+            }
+        }
+
+        /**
+         * Если текущая отправка началась раньше now - timeout, помечает подписчика
+         * отключённым и прерывает поток отправки.
+         *
+         * @return true, если подписчик отключён этим вызовом
+         */
+        private boolean evictIfStalled(long now, long timeout) {
+            sendLock.lock();
+            try {
+                if (evicted || sendingThread == null || now - sendStarted < timeout) {
+                    return false;
+                }
+                evicted = true;
+                sendingThread.interrupt();
+                return true;
+            } finally {
+                sendLock.unlock();
+            }
+        }
+    }
+
+    private record EmitterSink(SseEmitter emitter) implements Sink {
+
+        @Override
+        public void send(String event, long version, String data) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .name(event)
+                    .id(Long.toString(version))
+                    .data(data, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
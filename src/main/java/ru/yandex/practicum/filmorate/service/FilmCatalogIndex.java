@@ -0,0 +1,136 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Вторичные индексы каталога: рейтинги популярности отдельно по каждому году выхода
+ * и по каждой продолжительности. Запрос популярных с фильтром обходит только рейтинг
+ * нужного года или начала рейтингов из нужного диапазона продолжительности. Год и
+ * продолжительность фильма хранятся здесь же, поэтому ни запросы, ни лайки не
+ * загружают фильмы из хранилища. Изменения одного фильма сериализуются полосатыми
+ * блокировками, чтобы лайк не вернул фильм в рейтинг года, из которого его перенесли.
+ */
+class FilmCatalogIndex {
+
+    private static final int STRIPES = 64;
+
+    private final Map<Integer, FilmPopularityIndex> popularityByYear = new ConcurrentHashMap<>();
+    private final NavigableMap<Integer, FilmPopularityIndex> popularityByDuration = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Attributes> attributes = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    FilmCatalogIndex(FilmStorage filmStorage) {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        for (Film film : filmStorage.findAll()) {
+            added(film);
+        }
+    }
+
+    void added(Film film) {
+        ReentrantLock lock = lock(film.getId());
+        lock.lock();
+        try {
+            Attributes filmAttributes = new Attributes(year(film), film.getDuration());
+            attributes.put(film.getId(), filmAttributes);
+            rank(film.getId(), filmAttributes, film.getLikes().size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void replaced(Film before, Film after) {
+        ReentrantLock lock = lock(before.getId());
+        lock.lock();
+        try {
+            Attributes previous = attributes.get(before.getId());
+            if (previous != null) {
+                Integer year = year(after);
+                if (previous.year() != null && !previous.year().equals(year)) {
+                    remove(popularityByYear.get(previous.year()), before.getId());
+                }
+                if (previous.duration() != after.getDuration()) {
+                    remove(popularityByDuration.get(previous.duration()), before.getId());
+                }
+            }
+            added(after);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void likesChanged(FilmStorage filmStorage, int filmId) {
+        ReentrantLock lock = lock(filmId);
+        lock.lock();
+        try {
+            Attributes filmAttributes = attributes.get(filmId);
+            if (filmAttributes != null) {
+                rank(filmId, filmAttributes, filmStorage.likeCount(filmId));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    List<Film> findPopular(FilmStorage filmStorage, int count, Integer year, Integer minDuration,
+                           Integer maxDuration) {
+        int from = minDuration == null ? Integer.MIN_VALUE : minDuration;
+        int to = maxDuration == null ? Integer.MAX_VALUE : maxDuration;
+        if (year != null) {
+            FilmPopularityIndex popularity = popularityByYear.get(year);
+            if (popularity == null) {
+                return List.of();
+            }
+            return filmStorage.findAllById(popularity.top(count, id -> {
+                        Attributes filmAttributes = attributes.get(id);
+                        return filmAttributes != null
+                                && filmAttributes.duration() >= from && filmAttributes.duration() <= to;
+                    }).stream()
+                    .mapToInt(Integer::intValue)
+                    .toArray());
+        }
+        ScoreTable likes = new ScoreTable();
+        for (FilmPopularityIndex popularity : popularityByDuration.subMap(from, true, to, true).values()) {
+            for (int id : popularity.top(count)) {
+                likes.add(id, popularity.likeCount(id));
+            }
+        }
+        return filmStorage.findAllById(likes.top(count, id -> false));
+    }
+
+    private void rank(int filmId, Attributes filmAttributes, int likeCount) {
+        if (filmAttributes.year() != null) {
+            popularityByYear.computeIfAbsent(filmAttributes.year(), key -> new FilmPopularityIndex())
+                    .update(filmId, () -> likeCount);
+        }
+        popularityByDuration.computeIfAbsent(filmAttributes.duration(), key -> new FilmPopularityIndex())
+                .update(filmId, () -> likeCount);
+    }
+
+    private ReentrantLock lock(int filmId) {
+        return locks[Math.floorMod(filmId, STRIPES)];
+    }
+
+    private static void remove(FilmPopularityIndex popularity, int filmId) {
+        if (popularity != null) {
+            popularity.remove(filmId);
+        }
+    }
+
+    private static Integer year(Film film) {
+        return film.getReleaseDate() == null ? null : film.getReleaseDate().getYear();
+    }
+
+    private record Attributes(Integer year, int duration) {
+    }
+}
@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.IdSet;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Рекомендации фильмов по схожести лайков. Обратный индекс «пользователь → лайкнутые
+ * фильмы» поддерживается сервисом при каждом изменении лайков. Кандидаты в похожие
+ * пользователи собираются через лайкеров фильмов пользователя, из MAX_NEIGHBOUR_CANDIDATES
+ * лучших по числу совпадений выбираются MAX_NEIGHBOURS с наибольшим коэффициентом
+ * Жаккара, а их фильмы, которых у пользователя ещё нет, ранжируются по сумме схожести.
+ * Все ограничения обхода — фильмы пользователя, лайкеры фильма, фильмы соседа —
+ * применяются случайной выборкой, чтобы не отдавать предпочтение старым id.
+ */
+class FilmRecommendations {
+
+    static final int MAX_RECOMMENDATIONS = 100;
+
+    private static final int MAX_EXPANDED_LIKES = 1_024;
+    private static final int MAX_LIKERS_PER_FILM = 2_048;
+    private static final int MAX_NEIGHBOUR_CANDIDATES = 200;
+    private static final int MAX_NEIGHBOURS = 50;
+    private static final int MAX_LIKES_PER_NEIGHBOUR = 4_096;
+    private static final IdSet NO_LIKES = new IdSet();
+
+    private final Map<Integer, IdSet> likesByUser = new ConcurrentHashMap<>();
+
+    FilmRecommendations(FilmStorage filmStorage) {
+        for (Film film : filmStorage.findAll()) {
+            likedByAll(film.getLikes(), film.getId());
+        }
+    }
+
+    void liked(int userId, int filmId) {
+        likesByUser.computeIfAbsent(userId, id -> new IdSet()).add(filmId);
+    }
+
+    void unliked(int userId, int filmId) {
+        IdSet likes = likesByUser.get(userId);
+        if (likes != null) {
+            likes.remove(filmId);
+        }
+    }
+
+    void likesReplaced(int filmId, IdSet before, IdSet after) {
+        for (int userId : before.toIntArray()) {
+            if (!after.contains(userId)) {
+                unliked(userId, filmId);
+            }
+        }
+        likedByAll(after, filmId);
+    }
+
+    int[] recommend(FilmStorage filmStorage, int userId) {
+        IdSet own = likesByUser.getOrDefault(userId, NO_LIKES);
+        if (own.isEmpty()) {
+            return new int[0];
+        }
+        ScoreTable overlaps = new ScoreTable();
+        for (int filmId : own.sample(MAX_EXPANDED_LIKES)) {
+            for (int likerId : filmStorage.findById(filmId).getLikes().sample(MAX_LIKERS_PER_FILM)) {
+                overlaps.add(likerId, 1);
+            }
+        }
+
+        ScoreTable similarities = new ScoreTable();
+        for (int candidateId : overlaps.top(MAX_NEIGHBOUR_CANDIDATES, id -> id == userId)) {
+            IdSet candidateLikes = likesByUser.getOrDefault(candidateId, NO_LIKES);
+            int common = own.intersectionSize(candidateLikes);
+            if (common > 0) {
+                similarities.add(candidateId, (double) common / (own.size() + candidateLikes.size() - common));
+            }
+        }
+
+        ScoreTable scores = new ScoreTable();
+        for (int neighbourId : similarities.top(MAX_NEIGHBOURS, id -> false)) {
+            double similarity = similarities.get(neighbourId);
+            IdSet neighbourLikes = likesByUser.getOrDefault(neighbourId, NO_LIKES);
+            for (int filmId : neighbourLikes.sample(MAX_LIKES_PER_NEIGHBOUR)) {
+                if (!own.contains(filmId)) {
+                    scores.add(filmId, similarity);
+                }
+            }
+        }
+        return scores.top(MAX_RECOMMENDATIONS, own::contains);
+    }
+
+    private void likedByAll(IdSet userIds, int filmId) {
+        for (int userId : userIds.toIntArray()) {
+            liked(userId, filmId);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.IdSet;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Инвертированный индекс по названию и описанию фильмов. Слова приводятся к нижнему
+ * регистру (ё к е), каждое слово запроса ищется и как целое слово, и как префикс.
+ * Префикс в каждом поле раскрывается не больше чем в MAX_PREFIX_EXPANSION (32) первых
+ * по алфавиту слов словаря; остальные слова с этим префиксом молча не учитываются.
+ * Кандидаты набираются с самого редкого слова запроса, остальные слова только
+ * сужают набор; если совпадений слишком много, остаются MAX_CANDIDATES лучших по
+ * релевантности с учётом числа лайков. Для очень частых слов оценивается не больше
+ * MAX_SCORED совпадений, случайно выбранных по всему диапазону id. Итоговый
+ * порядок учитывает и релевантность, и число лайков.
+ */
+class FilmSearchIndex {
+
+    static final int MAX_RESULTS = 100;
+
+    private static final int MAX_QUERY_TERMS = 8;
+    private static final int MAX_TERM_LENGTH = 32;
+    private static final int MAX_PREFIX_EXPANSION = 32;
+    private static final int MAX_CANDIDATES = 1_024;
+    private static final int MAX_SCORED = 262_144;
+    private static final double NAME_WEIGHT = 4;
+    private static final double DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_PENALTY = 0.5;
+    private static final double POPULARITY_WEIGHT = 0.25;
+
+    private final Field names = new Field(NAME_WEIGHT);
+    private final Field descriptions = new Field(DESCRIPTION_WEIGHT);
+
+    FilmSearchIndex(FilmStorage filmStorage) {
+        filmStorage.findAll().parallelStream().forEach(this::added);
+    }
+
+    void added(Film film) {
+        names.index(film.getName(), film.getId());
+        descriptions.index(film.getDescription(), film.getId());
+    }
+
+    void replaced(Film before, Film after) {
+        names.unindex(before.getName(), after.getName(), before.getId());
+        descriptions.unindex(before.getDescription(), after.getDescription(), before.getId());
+        added(after);
+    }
+
+    List<Film> search(FilmStorage filmStorage, String query, int limit) {
+        List<QueryTerm> terms = new ArrayList<>();
+        for (String token : tokenize(query)) {
+            if (terms.size() == MAX_QUERY_TERMS) {
+                break;
+            }
+            terms.add(resolve(token));
+        }
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        terms.sort(Comparator.comparingLong(QueryTerm::cardinality));
+
+        ScoreTable relevance = seed(filmStorage, terms.get(0));
+        for (int i = 1; i < terms.size() && relevance.size() > 0; i++) {
+            relevance = narrow(relevance, terms.get(i));
+        }
+        return filmStorage.findAllById(rank(filmStorage, relevance).top(Math.min(limit, MAX_RESULTS), id -> false));
+    }
+
+    private ScoreTable seed(FilmStorage filmStorage, QueryTerm term) {
+        ScoreTable scores = new ScoreTable();
+        for (Posting posting : term.postings()) {
+            if (term.cardinality() > MAX_SCORED) {
+                int limit = (int) ((long) posting.ids().size() * MAX_SCORED / term.cardinality());
+                for (int id : posting.ids().sample(limit)) {
+                    scores.max(id, posting.weight());
+                }
+            } else {
+                posting.ids().forEachId(id -> scores.max(id, posting.weight()));
+            }
+        }
+        if (scores.size() <= MAX_CANDIDATES) {
+            return scores;
+        }
+        ScoreTable best = new ScoreTable();
+        for (int id : rank(filmStorage, scores).top(MAX_CANDIDATES, id -> false)) {
+            best.add(id, scores.get(id));
+        }
+        return best;
+    }
+
+    private static ScoreTable rank(FilmStorage filmStorage, ScoreTable relevance) {
+        ScoreTable ranked = new ScoreTable();
+        relevance.forEach((id, score) ->
+                ranked.add(id, score * (1 + POPULARITY_WEIGHT * Math.log1p(filmStorage.likeCount(id)))));
+        return ranked;
+    }
+
+    private ScoreTable narrow(ScoreTable candidates, QueryTerm term) {
+        ScoreTable narrowed = new ScoreTable();
+        long membershipChecks = (long) candidates.size() * term.postings().size();
+        if (membershipChecks <= term.cardinality()) {
+            candidates.forEach((id, score) -> {
+                double best = 0;
+                for (Posting posting : term.postings()) {
+                    if (posting.weight() > best && posting.ids().contains(id)) {
+                        best = posting.weight();
+                    }
+                }
+                if (best > 0) {
+                    narrowed.add(id, score + best);
+                }
+            });
+        } else {
+            ScoreTable matched = new ScoreTable();
+            for (Posting posting : term.postings()) {
+                posting.ids().forEachId(id -> {
+                    if (candidates.get(id) > 0) {
+                        matched.max(id, posting.weight());
+                    }
+                });
+            }
+            matched.forEach((id, best) -> narrowed.add(id, candidates.get(id) + best));
+        }
+        return narrowed;
+    }
+
+    private QueryTerm resolve(String token) {
+        List<Posting> postings = new ArrayList<>();
+        names.collect(postings, token);
+        descriptions.collect(postings, token);
+        postings.sort(Comparator.comparingDouble(Posting::weight).reversed());
+        long cardinality = 0;
+        for (Posting posting : postings) {
+            cardinality += posting.ids().size();
+        }
+        return new QueryTerm(postings, cardinality);
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (token.length() < MAX_TERM_LENGTH) {
+                    char folded = Character.toLowerCase(c);
+                    token.append(folded == 'ё' ? 'е' : folded);
+                }
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Слова одного поля: множества фильмов по словам и отсортированный словарь для
+     * поиска по префиксу. Словарь меняется только при появлении нового слова.
+     */
+    private static final class Field {
+
+        private final Map<String, IdSet> postings = new ConcurrentHashMap<>();
+        private final NavigableSet<String> dictionary = new ConcurrentSkipListSet<>();
+        private final double weight;
+
+        Field(double weight) {
+            this.weight = weight;
+        }
+
+        void index(String text, int filmId) {
+            for (String term : tokenize(text)) {
+                IdSet ids = postings.get(term);
+                if (ids == null) {
+                    ids = postings.computeIfAbsent(term, key -> new IdSet());
+                    dictionary.add(term);
+                }
+                ids.add(filmId);
+            }
+        }
+
+        void unindex(String before, String after, int filmId) {
+            Set<String> kept = tokenize(after);
+            for (String term : tokenize(before)) {
+                IdSet ids = postings.get(term);
+                if (ids != null && !kept.contains(term)) {
+                    ids.remove(filmId);
+                }
+            }
+        }
+
+        void collect(List<Posting> result, String token) {
+            int expanded = 0;
+            for (String term : dictionary.tailSet(token, true)) {
+                if (!term.startsWith(token) || expanded == MAX_PREFIX_EXPANSION) {
+                    break;
+                }
+                IdSet ids = postings.get(term);
+                if (ids != null && !ids.isEmpty()) {
+                    boolean exact = term.length() == token.length();
+                    result.add(new Posting(ids, exact ? weight : weight * PREFIX_PENALTY));
+                    expanded++;
+                }
+            }
+        }
+    }
+
+    private record Posting(IdSet ids, double weight) {
+    }
+
+    private record QueryTerm(List<Posting> postings, long cardinality) {
+    }
+}
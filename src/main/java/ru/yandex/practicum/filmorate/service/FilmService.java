@@ -1,61 +1,304 @@
 package ru.yandex.practicum.filmorate.service;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.IdSet;
+import ru.yandex.practicum.filmorate.model.Like;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class FilmService {
 
     private static final LocalDate CINEMA_BIRTHDAY = LocalDate.of(1895, 12, 28);
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int LIKE_LOCK_STRIPES = 64;
 
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
+    private final Validator validator;
+    private final FilmRecommendations recommendations;
+    private final FilmSearchIndex searchIndex;
+    private final FilmCatalogIndex catalogIndex;
+    private final VersionTable versions = new VersionTable();
+    /**
+     * Изменение лайков фильма в хранилище и в обратном индексе рекомендаций, а замена
+     * фильма — ещё и в поисковом индексе и индексе каталога, выполняются под одной
+     * блокировкой фильма. Иначе параллельные изменения могли бы дойти до индексов в
+     * порядке, обратном записи в хранилище, и индекс навсегда разошёлся бы с ним.
+     */
+    private final ReentrantLock[] likeLocks = new ReentrantLock[LIKE_LOCK_STRIPES];
+
+    public FilmService(FilmStorage filmStorage, UserStorage userStorage, Validator validator) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.validator = validator;
+        this.recommendations = new FilmRecommendations(filmStorage);
+        this.searchIndex = new FilmSearchIndex(filmStorage);
+        this.catalogIndex = new FilmCatalogIndex(filmStorage);
+        for (int i = 0; i < LIKE_LOCK_STRIPES; i++) {
+            likeLocks[i] = new ReentrantLock();
+        }
+    }
 
     public Film createFilm(Film film) {
         validateFilm(film);
-        return filmStorage.create(film);
+        Film created = filmStorage.create(film);
+        indexCreated(created);
+        versions.bump(created.getId());
+        return created;
     }
 
     public Film updateFilm(Film film) {
         validateFilm(film);
-        return filmStorage.update(film);
+        ReentrantLock lock = likeLock(film.getId());
+        lock.lock();
+        try {
+            Film previous = filmStorage.findById(film.getId());
+            IdSet likesBefore = new IdSet(previous.getLikes());
+            Film updated = filmStorage.update(film);
+            recommendations.likesReplaced(updated.getId(), likesBefore, updated.getLikes());
+            searchIndex.replaced(previous, updated);
+            catalogIndex.replaced(previous, updated);
+            versions.bump(updated.getId());
+            return updated;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public List<Film> getFilms() {
-        return filmStorage.findAll().stream().toList();
+    public List<BatchItemResult> createFilms(List<Film> films) {
+        List<BatchItemResult> results = new ArrayList<>(films.size());
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            String error = findValidationError(film);
+            if (error == null) {
+                Film created = filmStorage.create(film);
+                indexCreated(created);
+                versions.bump(created.getId());
+                results.add(BatchItemResult.ok(i, created.getId()));
+            } else {
+                results.add(BatchItemResult.failed(i, error));
+            }
+        }
+        return results;
+    }
+
+    public Collection<Film> getFilms() {
+        return filmStorage.findAll();
+    }
+
+    public List<Film> getFilmsPage(Integer afterId, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным");
+        }
+        return filmStorage.findPage(afterId == null ? 0 : afterId, pageSize);
     }
 
     public Film getFilmById(int id) {
         return filmStorage.findById(id);
     }
 
+    public String getFilmVersionTag(int id) {
+        requireFilm(id);
+        return versions.tag(id);
+    }
+
+    /**
+     * Тег версии всего каталога: меняется при любом изменении фильмов и лайков,
+     * поэтому подходит для списков популярных с любыми фильтрами.
+     */
+    public String getCatalogVersionTag() {
+        return versions.collectionTag();
+    }
+
     public void addLike(int filmId, int userId) {
-        Film film = filmStorage.findById(filmId);
-        userStorage.findById(userId);
-        film.getLikes().add(userId);
+        checkLike(filmId, userId);
+        if (like(filmId, userId)) {
+            catalogIndex.likesChanged(filmStorage, filmId);
+            versions.bump(filmId);
+        }
     }
 
     public void removeLike(int filmId, int userId) {
-        Film film = filmStorage.findById(filmId);
-        userStorage.findById(userId);
-        film.getLikes().remove(userId);
+        checkLike(filmId, userId);
+        if (unlike(filmId, userId)) {
+            catalogIndex.likesChanged(filmStorage, filmId);
+            versions.bump(filmId);
+        }
+    }
+
+    public void checkLike(int filmId, int userId) {
+        requireFilm(filmId);
+        requireUser(userId);
+    }
+
+    /**
+     * Применяет уже проверенную и схлопнутую пачку лайков одного фильма.
+     */
+    public void applyLikes(int filmId, int[] likedBy, int[] unlikedBy) {
+        boolean changed;
+        ReentrantLock lock = likeLock(filmId);
+        lock.lock();
+        try {
+            changed = filmStorage.applyLikes(filmId, likedBy, unlikedBy);
+            if (changed) {
+                for (int userId : likedBy) {
+                    recommendations.liked(userId, filmId);
+                }
+                for (int userId : unlikedBy) {
+                    recommendations.unliked(userId, filmId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (changed) {
+            catalogIndex.likesChanged(filmStorage, filmId);
+            versions.bump(filmId);
+        }
+    }
+
+    public List<BatchItemResult> addLikes(List<Like> likes) {
+        Map<Integer, Boolean> knownFilms = new HashMap<>();
+        Map<Integer, Boolean> knownUsers = new HashMap<>();
+        List<BatchItemResult> results = new ArrayList<>(likes.size());
+        for (int i = 0; i < likes.size(); i++) {
+            Like like = likes.get(i);
+            if (like == null) {
+                results.add(BatchItemResult.failed(i, "Пустой элемент пакета"));
+            } else if (!knownFilms.computeIfAbsent(like.getFilmId(), filmStorage::exists)) {
+                results.add(BatchItemResult.failed(i, "Фильм с id=" + like.getFilmId() + " не найден"));
+            } else if (!knownUsers.computeIfAbsent(like.getUserId(), userStorage::exists)) {
+                results.add(BatchItemResult.failed(i, "Пользователь с id=" + like.getUserId() + " не найден"));
+            } else {
+                if (like(like.getFilmId(), like.getUserId())) {
+                    catalogIndex.likesChanged(filmStorage, like.getFilmId());
+                    versions.bump(like.getFilmId());
+                }
+                results.add(BatchItemResult.ok(i, like.getFilmId()));
+            }
+        }
+        return results;
     }
 
     public List<Film> getPopularFilms(int count) {
-        return filmStorage.findAll().stream()
-                .sorted(Comparator.comparingInt((Film f) -> f.getLikes().size()).reversed())
-                .limit(count)
-                .collect(Collectors.toList());
+        return filmStorage.findPopular(count);
+    }
+
+    public List<Film> getPopularFilms(int count, Integer year, Integer minDuration, Integer maxDuration) {
+        if (year == null && minDuration == null && maxDuration == null) {
+            return filmStorage.findPopular(count);
+        }
+        if (minDuration != null && maxDuration != null && minDuration > maxDuration) {
+            throw new ValidationException("Минимальная продолжительность не может превышать максимальную");
+        }
+        return catalogIndex.findPopular(filmStorage, count, year, minDuration, maxDuration);
+    }
+
+    public List<Film> getRecommendations(int userId, int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Количество рекомендаций должно быть положительным");
+        }
+        requireUser(userId);
+        int[] ids = recommendations.recommend(filmStorage, userId);
+        return filmStorage.findAllById(Arrays.copyOf(ids, Math.min(ids.length, limit)));
+    }
+
+    public List<Film> searchFilms(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Поисковый запрос не должен быть пустым");
+        }
+        if (limit <= 0) {
+            throw new ValidationException("Количество результатов должно быть положительным");
+        }
+        return searchIndex.search(filmStorage, query, limit);
+    }
+
+    private boolean like(int filmId, int userId) {
+        ReentrantLock lock = likeLock(filmId);
+        lock.lock();
+        try {
+            if (!filmStorage.addLike(filmId, userId)) {
+                return false;
+            }
+            recommendations.liked(userId, filmId);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean unlike(int filmId, int userId) {
+        ReentrantLock lock = likeLock(filmId);
+        lock.lock();
+        try {
+            if (!filmStorage.removeLike(filmId, userId)) {
+                return false;
+            }
+            recommendations.unliked(userId, filmId);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock likeLock(int filmId) {
+        return likeLocks[Math.floorMod(filmId, LIKE_LOCK_STRIPES)];
+    }
+
+    private void indexCreated(Film film) {
+        recommendations.likesReplaced(film.getId(), new IdSet(), film.getLikes());
+        searchIndex.added(film);
+        catalogIndex.added(film);
+    }
+
+    private String findValidationError(Film film) {
+        if (film == null) {
+            return "Пустой элемент пакета";
+        }
+        Set<ConstraintViolation<Film>> violations = validator.validate(film);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        try {
+            validateFilm(film);
+            return null;
+        } catch (ValidationException e) {
+            return e.getMessage();
+        }
+    }
+
+    private void requireFilm(int filmId) {
+        if (!filmStorage.exists(filmId)) {
+            throw new NotFoundException("Фильм с id=" + filmId + " не найден");
+        }
+    }
+
+    private void requireUser(int userId) {
+        if (!userStorage.exists(userId)) {
+            throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+        }
     }
 
     private void validateFilm(Film film) {
@@ -0,0 +1,235 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Граф дружбы для поиска кратчайшего пути между пользователями. У каждого
+ * пользователя хранится отсортированный массив id друзей в страницах по id; при
+ * изменении дружбы массив заменяется целиком, поэтому поиск читает граф без
+ * блокировок и без обращения к хранилищу. Поиск — двунаправленный BFS, который на
+ * каждом шаге раскрывает меньший из двух фронтов. Посещённые вершины отмечаются в
+ * битовых картах, родители для восстановления пути — в таблице с открытой адресацией.
+ * Поиск ограничен глубиной и TIME_BUDGET. Битовые карты рассчитаны на id, известные
+ * к началу поиска; друзья, появившиеся во время поиска с большими id, пропускаются.
+ */
+class FriendGraph {
+
+    static final int MAX_DEPTH = 12;
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final long TIME_BUDGET = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final int DEADLINE_CHECK_INTERVAL = 1_024;
+    private static final int[] NO_FRIENDS = new int[0];
+
+    private final Map<Integer, AtomicReferenceArray<int[]>> pages = new ConcurrentHashMap<>();
+    private final AtomicInteger maxId = new AtomicInteger();
+
+    FriendGraph(Collection<User> users) {
+        for (User user : users) {
+            update(user);
+        }
+    }
+
+    /**
+     * Заменяет список друзей пользователя текущим состоянием из хранилища. Обновления
+     * одного пользователя должны быть упорядочены вызывающим кодом.
+     */
+    void update(User user) {
+        int[] friends = user.getFriends().toIntArray();
+        int highest = user.getId();
+        for (int friendId : friends) {
+            highest = Math.max(highest, friendId);
+        }
+        maxId.accumulateAndGet(highest, Math::max);
+        AtomicReferenceArray<int[]> page = pages.get(user.getId() >>> PAGE_BITS);
+        if (page == null) {
+            page = pages.computeIfAbsent(user.getId() >>> PAGE_BITS, key -> new AtomicReferenceArray<>(PAGE_SIZE));
+        }
+        page.set(user.getId() & (PAGE_SIZE - 1), friends.length == 0 ? NO_FRIENDS : friends);
+    }
+
+    int[] friends(int id) {
+        AtomicReferenceArray<int[]> page = pages.get(id >>> PAGE_BITS);
+        int[] friends = page == null ? null : page.get(id & (PAGE_SIZE - 1));
+        return friends == null ? NO_FRIENDS : friends;
+    }
+
+    /**
+     * Кратчайший путь от from до to включительно или null, если его нет в пределах
+     * maxDepth рукопожатий. Если поиск не уложился в TIME_BUDGET, бросает
+     * {@link SearchTimeoutException}.
+     */
+    int[] shortestPath(int from, int to, int maxDepth) {
+        if (from == to) {
+            return new int[]{from};
+        }
+        long deadline = System.nanoTime() + TIME_BUDGET;
+        int bound = Math.max(maxId.get(), Math.max(from, to)) + 1;
+        Side forward = new Side(from, bound);
+        Side backward = new Side(to, bound);
+        int expanded = 0;
+        while (forward.depth + backward.depth < maxDepth && !forward.isExhausted() && !backward.isExhausted()) {
+            Side side = forward.frontierSize <= backward.frontierSize ? forward : backward;
+            Side other = side == forward ? backward : forward;
+            int[] frontier = side.frontier;
+            int frontierSize = side.frontierSize;
+            side.startLayer();
+            for (int i = 0; i < frontierSize; i++) {
+                int node = frontier[i];
+                if (++expanded % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                    throw new SearchTimeoutException();
+                }
+                for (int next : friends(node)) {
+                    if (next >= bound || !side.visit(next, node)) {
+                        continue;
+                    }
+                    if (other.isVisited(next)) {
+                        return join(forward, backward, next);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int[] join(Side forward, Side backward, int meeting) {
+        int[] head = forward.pathTo(meeting);
+        int[] tail = backward.pathTo(meeting);
+        int[] path = Arrays.copyOf(head, head.length + tail.length - 1);
+        for (int i = 1; i < tail.length; i++) {
+            path[head.length + i - 1] = tail[tail.length - 1 - i];
+        }
+        return path;
+    }
+
+    static class SearchTimeoutException extends RuntimeException {
+
+        SearchTimeoutException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Одна сторона поиска: битовая карта посещённых, родители и текущий фронт.
+     */
+    private static class Side {
+
+        private static final int ROOT = -1;
+
+        private final long[] visited;
+        private int[] parentKeys = new int[64];
+        private int[] parentValues = new int[64];
+        private int parents;
+        private int[] frontier;
+        private int frontierSize;
+        private int[] spare = new int[16];
+        private int depth;
+
+        Side(int root, int bound) {
+            visited = new long[(bound + 63) >>> 6];
+            frontier = new int[]{root};
+            frontierSize = 1;
+            mark(root);
+            putParent(root, ROOT);
+        }
+
+        boolean isExhausted() {
+            return frontierSize == 0;
+        }
+
+        boolean isVisited(int id) {
+            return (visited[id >>> 6] & (1L << id)) != 0;
+        }
+
+        /**
+         * Начинает следующий слой: вершины, найденные при раскрытии текущего фронта,
+         * записываются в запасной массив, а прежний фронт становится запасным.
+         */
+        void startLayer() {
+            int[] previous = frontier;
+            frontier = spare;
+            spare = previous;
+            frontierSize = 0;
+            depth++;
+        }
+
+        boolean visit(int id, int parent) {
+            if (isVisited(id)) {
+                return false;
+            }
+            mark(id);
+            putParent(id, parent);
+            if (frontierSize == frontier.length) {
+                frontier = Arrays.copyOf(frontier, frontier.length * 2);
+            }
+            frontier[frontierSize++] = id;
+            return true;
+        }
+
+        int[] pathTo(int id) {
+            int[] path = new int[depth + 1];
+            int length = 0;
+            for (int node = id; node != ROOT; node = getParent(node)) {
+                path[length++] = node;
+            }
+            int[] ordered = new int[length];
+            for (int i = 0; i < length; i++) {
+                ordered[i] = path[length - 1 - i];
+            }
+            return ordered;
+        }
+
+        private void mark(int id) {
+            visited[id >>> 6] |= 1L << id;
+        }
+
+        private void putParent(int id, int parent) {
+            if (parents * 2 >= parentKeys.length) {
+                growParents();
+            }
+            int mask = parentKeys.length - 1;
+            int slot = mix(id) & mask;
+            while (parentKeys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            parentKeys[slot] = id;
+            parentValues[slot] = parent;
+            parents++;
+        }
+
+        private int getParent(int id) {
+            int mask = parentKeys.length - 1;
+            int slot = mix(id) & mask;
+            while (parentKeys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return parentValues[slot];
+        }
+
+        private void growParents() {
+            int[] oldKeys = parentKeys;
+            int[] oldValues = parentValues;
+            parentKeys = new int[oldKeys.length * 2];
+            parentValues = new int[oldKeys.length * 2];
+            parents = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    putParent(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(int id) {
+            return id * 0x9E3779B9 >>> 7;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.model.IdSet;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Рекомендации друзей второго круга, ранжированные по числу общих друзей.
+ * Обход ограничен: раскрывается случайная выборка не больше MAX_EXPANDED_FRIENDS друзей
+ * пользователя и не больше MAX_FRIENDS_PER_FRIEND друзей каждого из них, а по истечении
+ * TIME_BUDGET возвращается то, что успели насчитать. Друзья пользователей с большим
+ * числом связей раскрываются параллельно. Результаты кешируются до изменения дружбы
+ * у пользователя или его друзей.
+ */
+class FriendSuggestions {
+
+    static final int MAX_SUGGESTIONS = 100;
+
+    private static final int MAX_EXPANDED_FRIENDS = 1_024;
+    private static final int MAX_FRIENDS_PER_FRIEND = 2_048;
+    private static final int PARALLEL_THRESHOLD = 64;
+    private static final long TIME_BUDGET = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final int MAX_CACHED_USERS = 100_000;
+    private static final int MAX_TARGETED_INVALIDATION = 4_096;
+
+    private final Map<Integer, Entry> cache = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong generation = new AtomicLong();
+
+    int[] suggest(UserStorage userStorage, User user) {
+        long currentGeneration = generation.get();
+        Entry cached = cache.get(user.getId());
+        if (cached != null && cached.generation() == currentGeneration) {
+            return cached.ids();
+        }
+        long changesBefore = changes.get();
+        int[] ids = compute(userStorage, user);
+        if (cache.size() >= MAX_CACHED_USERS) {
+            cache.clear();
+        }
+        Entry entry = new Entry(ids, currentGeneration);
+        cache.put(user.getId(), entry);
+        if (changes.get() != changesBefore) {
+            cache.remove(user.getId(), entry);
+        }
+        return ids;
+    }
+
+    void invalidate(UserStorage userStorage, int userId, int friendId) {
+        changes.incrementAndGet();
+        User user = userStorage.findById(userId);
+        User friend = userStorage.findById(friendId);
+        invalidateAround(user.getId(), user.getFriends());
+        invalidateAround(friend.getId(), friend.getFriends());
+    }
+
+    /**
+     * Пользователь заменён целиком: рекомендации устаревают у него, у прежних и у новых друзей.
+     */
+    void replaced(int userId, IdSet friendsBefore, IdSet friendsAfter) {
+        changes.incrementAndGet();
+        invalidateAround(userId, friendsBefore);
+        invalidateAround(userId, friendsAfter);
+    }
+
+    private void invalidateAround(int userId, IdSet friends) {
+        cache.remove(userId);
+        if (friends.size() > MAX_TARGETED_INVALIDATION) {
+            generation.incrementAndGet();
+            return;
+        }
+        for (int friendId : friends.toIntArray()) {
+            cache.remove(friendId);
+        }
+    }
+
+    private int[] compute(UserStorage userStorage, User user) {
+        long deadline = System.nanoTime() + TIME_BUDGET;
+        int[] friends = user.getFriends().sample(MAX_EXPANDED_FRIENDS);
+        IntStream expansion = IntStream.of(friends);
+        if (friends.length >= PARALLEL_THRESHOLD) {
+            expansion = expansion.parallel();
+        }
+        ScoreTable mutualFriends = expansion.collect(ScoreTable::new, (table, friendId) -> {
+            if (System.nanoTime() < deadline) {
+                userStorage.find(friendId).ifPresent(friend -> {
+                    for (int candidate : friend.getFriends().sample(MAX_FRIENDS_PER_FRIEND)) {
+                        table.add(candidate, 1);
+                    }
+                });
+            }
+        }, ScoreTable::addAll);
+        IdSet friendIds = user.getFriends();
+        return mutualFriends.top(MAX_SUGGESTIONS, id -> id == user.getId() || friendIds.contains(id));
+    }
+
+    private record Entry(int[] ids, long generation) {
+    }
+}
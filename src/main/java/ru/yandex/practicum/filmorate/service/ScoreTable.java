@@ -0,0 +1,128 @@
+package ru.yandex.practicum.filmorate.service;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * Накопитель очков по положительным int-идентификаторам на открытой адресации,
+ * без упаковки в Integer. Лучшие K выбираются ограниченной кучей, полный список
+ * кандидатов не сортируется и не копируется.
+ */
+final class ScoreTable {
+
+    private static final Comparator<Scored> WORST_FIRST = Comparator.comparingDouble(Scored::score)
+            .thenComparing(Comparator.comparingInt(Scored::id).reversed());
+
+    private int[] ids = new int[64];
+    private double[] scores = new double[64];
+    private int size;
+
+    void add(int id, double score) {
+        int slot = slot(id);
+        scores[slot] += score;
+    }
+
+    void max(int id, double score) {
+        int slot = slot(id);
+        scores[slot] = Math.max(scores[slot], score);
+    }
+
+    void addAll(ScoreTable other) {
+        for (int i = 0; i < other.ids.length; i++) {
+            if (other.ids[i] != 0) {
+                add(other.ids[i], other.scores[i]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(Entry consumer) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != 0) {
+                consumer.accept(ids[i], scores[i]);
+            }
+        }
+    }
+
+    double get(int id) {
+        int mask = ids.length - 1;
+        int slot = mix(id) & mask;
+        while (ids[slot] != 0) {
+            if (ids[slot] == id) {
+                return scores[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * До limit идентификаторов по убыванию очков (при равенстве — по возрастанию id).
+     */
+    int[] top(int limit, IntPredicate excluded) {
+        PriorityQueue<Scored> best = new PriorityQueue<>(WORST_FIRST);
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            if (id == 0 || excluded.test(id)) {
+                continue;
+            }
+            Scored candidate = new Scored(id, scores[i]);
+            if (best.size() < limit) {
+                best.add(candidate);
+            } else if (limit > 0 && WORST_FIRST.compare(best.peek(), candidate) < 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+        int[] result = new int[best.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = best.poll().id();
+        }
+        return result;
+    }
+
+    private int slot(int id) {
+        if (size * 2 >= ids.length) {
+            grow();
+        }
+        int mask = ids.length - 1;
+        int slot = mix(id) & mask;
+        while (ids[slot] != 0 && ids[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        if (ids[slot] == 0) {
+            ids[slot] = id;
+            size++;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldIds = ids;
+        double[] oldScores = scores;
+        ids = new int[oldIds.length * 2];
+        scores = new double[oldIds.length * 2];
+        size = 0;
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] != 0) {
+                add(oldIds[i], oldScores[i]);
+            }
+        }
+    }
+
+    private static int mix(int id) {
+        int hash = id * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    interface Entry {
+        void accept(int id, double score);
+    }
+
+    private record Scored(int id, double score) {
+    }
+}
@@ -1,74 +1,260 @@
 package ru.yandex.practicum.filmorate.service;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.OverloadedException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class UserService {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int GRAPH_LOCK_STRIPES = 64;
+
     private final UserStorage userStorage;
+    private final Validator validator;
+    private final FriendSuggestions suggestions = new FriendSuggestions();
+    private final VersionTable versions = new VersionTable();
+    private final FriendGraph graph;
+    /**
+     * Строка пользователя в графе перечитывается из хранилища под блокировкой
+     * пользователя: последнее чтение видит все изменения дружбы, завершённые до него,
+     * поэтому устаревшая строка не может перезаписать более свежую.
+     */
+    private final ReentrantLock[] graphLocks = new ReentrantLock[GRAPH_LOCK_STRIPES];
+
+    public UserService(UserStorage userStorage, Validator validator) {
+        this.userStorage = userStorage;
+        this.validator = validator;
+        this.graph = new FriendGraph(userStorage.findAll());
+        for (int i = 0; i < GRAPH_LOCK_STRIPES; i++) {
+            graphLocks[i] = new ReentrantLock();
+        }
+    }
 
     public User createUser(User user) {
         validateUser(user);
-        return userStorage.create(user);
+        User created = userStorage.create(user);
+        refreshGraph(created.getId());
+        versions.bump(created.getId());
+        return created;
     }
 
     public User updateUser(User user) {
         validateUser(user);
-        return userStorage.update(user);
+        User previous = userStorage.findById(user.getId());
+        User updated = userStorage.update(user);
+        refreshGraph(updated.getId());
+        suggestions.replaced(updated.getId(), previous.getFriends(), updated.getFriends());
+        versions.bump(updated.getId());
+        return updated;
+    }
+
+    public List<BatchItemResult> createUsers(List<User> users) {
+        List<BatchItemResult> results = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            String error = findValidationError(user);
+            if (error == null) {
+                User created = userStorage.create(user);
+                refreshGraph(created.getId());
+                versions.bump(created.getId());
+                results.add(BatchItemResult.ok(i, created.getId()));
+            } else {
+                results.add(BatchItemResult.failed(i, error));
+            }
+        }
+        return results;
+    }
+
+    public Collection<User> getUsers() {
+        return userStorage.findAll();
     }
 
-    public List<User> getUsers() {
-        return userStorage.findAll().stream().toList();
+    public List<User> getUsersPage(Integer afterId, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным");
+        }
+        return userStorage.findPage(afterId == null ? 0 : afterId, pageSize);
     }
 
     public User getUserById(int id) {
         return userStorage.findById(id);
     }
 
-    public void addFriend(int userId, int friendId) {
-        User user = userStorage.findById(userId);
-        User friend = userStorage.findById(friendId);
+    /**
+     * Тег версии пользователя: меняется при изменении его данных или его дружбы. Для
+     * несуществующего пользователя тег не выдаётся: иначе клиент с подобранным тегом
+     * получил бы 304 вместо 404.
+     */
+    public String getUserVersionTag(int id) {
+        requireUser(id);
+        return versions.tag(id);
+    }
+
+    /**
+     * Тег списка друзей. Собирается при чтении из версий пользователя и его друзей,
+     * поэтому изменение дружбы или данных пользователя не обновляет версии всех его друзей.
+     */
+    public String getFriendsVersionTag(int id) {
+        return versions.tag(id, userStorage.findById(id).getFriends());
+    }
 
-        user.getFriends().add(friendId);
-        friend.getFriends().add(userId);
+    public void addFriend(int userId, int friendId) {
+        if (userStorage.addFriend(userId, friendId)) {
+            friendshipChanged(userId, friendId);
+        }
     }
 
     public void removeFriend(int userId, int friendId) {
-        User user = userStorage.findById(userId);
-        User friend = userStorage.findById(friendId);
+        if (userStorage.removeFriend(userId, friendId)) {
+            friendshipChanged(userId, friendId);
+        }
+    }
 
-        user.getFriends().remove(friendId);
-        friend.getFriends().remove(userId);
+    public List<BatchItemResult> addFriends(List<Friendship> friendships) {
+        Map<Integer, User> knownUsers = new HashMap<>();
+        List<BatchItemResult> results = new ArrayList<>(friendships.size());
+        for (int i = 0; i < friendships.size(); i++) {
+            Friendship friendship = friendships.get(i);
+            if (friendship == null) {
+                results.add(BatchItemResult.failed(i, "Пустой элемент пакета"));
+                continue;
+            }
+            User user = knownUsers.computeIfAbsent(friendship.getUserId(), id -> userStorage.find(id).orElse(null));
+            User friend = knownUsers.computeIfAbsent(friendship.getFriendId(), id -> userStorage.find(id).orElse(null));
+            if (user == null) {
+                results.add(BatchItemResult.failed(i, "Пользователь с id=" + friendship.getUserId() + " не найден"));
+            } else if (friend == null) {
+                results.add(BatchItemResult.failed(i, "Пользователь с id=" + friendship.getFriendId() + " не найден"));
+            } else {
+                if (userStorage.addFriend(user.getId(), friend.getId())) {
+                    friendshipChanged(user.getId(), friend.getId());
+                }
+                results.add(BatchItemResult.ok(i, user.getId()));
+            }
+        }
+        return results;
     }
 
     public List<User> getFriends(int userId) {
         User user = userStorage.findById(userId);
 
-        return user.getFriends().stream()
-                .map(userStorage::findById)
-                .collect(Collectors.toList());
+        return userStorage.findAllById(user.getFriends().toIntArray());
     }
 
     public List<User> getCommonFriends(int userId, int otherId) {
         User user = userStorage.findById(userId);
         User other = userStorage.findById(otherId);
 
-        Set<Integer> userFriends = user.getFriends();
-        Set<Integer> otherFriends = other.getFriends();
+        return userStorage.findAllById(user.getFriends().intersect(other.getFriends()));
+    }
+
+    public int getCommonFriendsCount(int userId, int otherId) {
+        User user = userStorage.findById(userId);
+        User other = userStorage.findById(otherId);
+
+        return user.getFriends().intersectionSize(other.getFriends());
+    }
+
+    public List<User> getFriendSuggestions(int userId, int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Количество рекомендаций должно быть положительным");
+        }
+        int[] ids = suggestions.suggest(userStorage, userStorage.findById(userId));
+        return userStorage.findAllById(Arrays.copyOf(ids, Math.min(ids.length, limit)));
+    }
+
+    /**
+     * Кратчайшая цепочка друзей от userId до otherId включительно. Если цепочки нет в
+     * пределах maxDepth рукопожатий, пользователи считаются несвязанными; если поиск не
+     * уложился в бюджет времени, ответ неизвестен и запрос предлагается повторить позже.
+     */
+    public List<User> getFriendPath(int userId, int otherId, int maxDepth) {
+        if (maxDepth <= 0) {
+            throw new ValidationException("Глубина поиска должна быть положительной");
+        }
+        requireUser(userId);
+        requireUser(otherId);
+        int depth = Math.min(maxDepth, FriendGraph.MAX_DEPTH);
+        int[] path;
+        try {
+            path = graph.shortestPath(userId, otherId, depth);
+        } catch (FriendGraph.SearchTimeoutException e) {
+            throw new OverloadedException("Поиск связи между пользователями " + userId + " и " + otherId
+                    + " не уложился в отведённое время, повторите запрос позже");
+        }
+        if (path == null) {
+            throw new NotFoundException("Пользователи " + userId + " и " + otherId
+                    + " не связаны в пределах " + depth + " рукопожатий");
+        }
+        return userStorage.findAllById(path);
+    }
+
+    private void requireUser(int userId) {
+        if (!userStorage.exists(userId)) {
+            throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+        }
+    }
+
+    private void friendshipChanged(int userId, int friendId) {
+        if (refreshGraph(userId) != null) {
+            versions.bump(userId);
+        }
+        if (refreshGraph(friendId) != null) {
+            versions.bump(friendId);
+        }
+        suggestions.invalidate(userStorage, userId, friendId);
+    }
 
-        return userFriends.stream()
-                .filter(otherFriends::contains)
-                .map(userStorage::findById)
-                .collect(Collectors.toList());
+    private User refreshGraph(int userId) {
+        ReentrantLock lock = graphLocks[Math.floorMod(userId, GRAPH_LOCK_STRIPES)];
+        lock.lock();
+        try {
+            User user = userStorage.find(userId).orElse(null);
+            if (user != null) {
+                graph.update(user);
+            }
+            return user;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String findValidationError(User user) {
+        if (user == null) {
+            return "Пустой элемент пакета";
+        }
+        Set<ConstraintViolation<User>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        try {
+            validateUser(user);
+            return null;
+        } catch (ValidationException e) {
+            return e.getMessage();
+        }
     }
 
     private void validateUser(User user) {
@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.model.IdSet;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Версии сущностей для условных GET. Версия сущности — значение общего счётчика на
+ * момент её последнего изменения, поэтому версии только растут, а значение самого
+ * счётчика служит версией всей коллекции. В тег добавляется момент запуска, чтобы
+ * теги, выданные до перезапуска, не совпали с новыми. Версии хранятся страницами
+ * long по id, без объекта на каждую сущность.
+ */
+class VersionTable {
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<Integer, AtomicLongArray> pages = new ConcurrentHashMap<>();
+
+    /**
+     * Вызывается после того, как изменение стало видно читателям: иначе читатель может
+     * получить новую версию вместе со старыми данными.
+     */
+    void bump(int id) {
+        AtomicLongArray page = pages.get(id >>> PAGE_BITS);
+        if (page == null) {
+            page = pages.computeIfAbsent(id >>> PAGE_BITS, key -> new AtomicLongArray(PAGE_SIZE));
+        }
+        page.set(id & (PAGE_SIZE - 1), clock.incrementAndGet());
+    }
+
+    String tag(int id) {
+        return epoch + "-" + id + "-" + Long.toString(version(id), 36);
+    }
+
+    /**
+     * Тег сущности вместе со связанными. Каждое изменение получает значение счётчика
+     * больше всех прежних версий, поэтому наибольшая версия из набора меняется при
+     * изменении любой его сущности.
+     */
+    String tag(int id, IdSet related) {
+        long[] latest = {version(id)};
+        related.forEachId(relatedId -> latest[0] = Math.max(latest[0], version(relatedId)));
+        return epoch + "-" + id + "-r" + Long.toString(latest[0], 36);
+    }
+
+    private long version(int id) {
+        AtomicLongArray page = pages.get(id >>> PAGE_BITS);
+        return page == null ? 0 : page.get(id & (PAGE_SIZE - 1));
+    }
+
+    String collectionTag() {
+        return epoch + "-" + Long.toString(clock.get(), 36);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.journal.JournalingFilmStorage;
+import ru.yandex.practicum.filmorate.storage.journal.JournalingUserStorage;
+import ru.yandex.practicum.filmorate.storage.journal.StorageJournal;
+import ru.yandex.practicum.filmorate.storage.metrics.MeteredFilmStorage;
+import ru.yandex.practicum.filmorate.storage.metrics.MeteredUserStorage;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapFilmStorage;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapUserStorage;
+import ru.yandex.practicum.filmorate.storage.partitioned.PartitionedFilmStorage;
+import ru.yandex.practicum.filmorate.storage.partitioned.PartitionedUserStorage;
+import ru.yandex.practicum.filmorate.storage.snapshot.SnapshotFilmStorage;
+import ru.yandex.practicum.filmorate.storage.snapshot.SnapshotUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Собирает хранилища, которые получают сервисы: движок из filmorate.storage.engine,
+ * поверх него журнал (если включён, только для in-memory) и метрики.
+ */
+@Configuration
+@EnableConfigurationProperties(StorageProperties.class)
+public class StorageConfiguration {
+
+    @Bean
+    @Primary
+    public FilmStorage filmStorage(StorageProperties properties, InMemoryFilmStorage inMemoryFilmStorage,
+                                   ObjectProvider<StorageJournal> journal, MeterRegistry registry) {
+        StorageJournal storageJournal = journal.getIfAvailable();
+        FilmStorage storage = switch (properties.getEngine()) {
+            case IN_MEMORY -> storageJournal == null ? inMemoryFilmStorage
+                    : new JournalingFilmStorage(inMemoryFilmStorage, storageJournal);
+            case SNAPSHOT -> withoutJournal(new SnapshotFilmStorage(), storageJournal);
+            case PARTITIONED -> withoutJournal(new PartitionedFilmStorage(properties.partitionCount(),
+                    ForkJoinPool.commonPool()), storageJournal);
+            case OFF_HEAP -> withoutJournal(new OffHeapFilmStorage(), storageJournal);
+        };
+        return new MeteredFilmStorage(storage, registry);
+    }
+
+    @Bean
+    @Primary
+    public UserStorage userStorage(StorageProperties properties, InMemoryUserStorage inMemoryUserStorage,
+                                   ObjectProvider<StorageJournal> journal, MeterRegistry registry) {
+        StorageJournal storageJournal = journal.getIfAvailable();
+        UserStorage storage = switch (properties.getEngine()) {
+            case IN_MEMORY -> storageJournal == null ? inMemoryUserStorage
+                    : new JournalingUserStorage(inMemoryUserStorage, storageJournal);
+            case SNAPSHOT -> withoutJournal(new SnapshotUserStorage(), storageJournal);
+            case PARTITIONED -> withoutJournal(new PartitionedUserStorage(properties.partitionCount()), storageJournal);
+            case OFF_HEAP -> withoutJournal(new OffHeapUserStorage(), storageJournal);
+        };
+        return new MeteredUserStorage(storage, registry);
+    }
+
+    private static <T> T withoutJournal(T storage, StorageJournal journal) {
+        if (journal != null) {
+            throw new IllegalStateException("Журнал поддерживается только для хранилища in-memory");
+        }
+        return storage;
+    }
+}
@@ -0,0 +1,8 @@
+package ru.yandex.practicum.filmorate.storage;
+
+public enum StorageEngine {
+    IN_MEMORY,
+    SNAPSHOT,
+    PARTITIONED,
+    OFF_HEAP
+}
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.storage")
+public class StorageProperties {
+
+    private StorageEngine engine = StorageEngine.IN_MEMORY;
+
+    private int partitions;
+
+    public int partitionCount() {
+        return partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,158 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+
+/**
+ * Рейтинг фильмов по числу лайков, который обновляется на месте при каждом лайке.
+ * Ключ рейтинга упаковывает (likeCount, id) в один long, поэтому первые K фильмов
+ * читаются обходом начала упорядоченного множества без блокировок и сортировки.
+ * Обновления одного фильма сериализуются полосатыми ReentrantLock, а не монитором
+ * ConcurrentHashMap.compute, чтобы не закреплять виртуальные потоки на носителе.
+ */
+public class FilmPopularityIndex {
+
+    private static final int STRIPES = 64;
+
+    private final Map<Integer, Integer> likeCounts = new ConcurrentHashMap<>();
+    private final NavigableSet<Long> ranking = new ConcurrentSkipListSet<>(Comparator.reverseOrder());
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final LongAdder totalLikes = new LongAdder();
+
+    public FilmPopularityIndex() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public void update(int filmId, IntSupplier likeCount) {
+        ReentrantLock lock = locks[Math.floorMod(filmId, STRIPES)];
+        lock.lock();
+        try {
+            int newCount = likeCount.getAsInt();
+            Integer oldCount = likeCounts.get(filmId);
+            if (oldCount != null && oldCount == newCount) {
+                return;
+            }
+            ranking.add(key(newCount, filmId));
+            likeCounts.put(filmId, newCount);
+            totalLikes.add(newCount - (oldCount == null ? 0 : oldCount));
+            if (oldCount != null) {
+                ranking.remove(key(oldCount, filmId));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Как {@link #update}, но фильм без лайков убирается из рейтинга, а не хранится в нём с нулём.
+     */
+    public void updateLiked(int filmId, IntSupplier likeCount) {
+        ReentrantLock lock = locks[Math.floorMod(filmId, STRIPES)];
+        lock.lock();
+        try {
+            int newCount = likeCount.getAsInt();
+            Integer oldCount = newCount == 0 ? likeCounts.remove(filmId) : likeCounts.put(filmId, newCount);
+            if (oldCount != null && oldCount == newCount) {
+                return;
+            }
+            totalLikes.add(newCount - (oldCount == null ? 0 : oldCount));
+            if (newCount != 0) {
+                ranking.add(key(newCount, filmId));
+            }
+            if (oldCount != null) {
+                ranking.remove(key(oldCount, filmId));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(int filmId) {
+        ReentrantLock lock = locks[Math.floorMod(filmId, STRIPES)];
+        lock.lock();
+        try {
+            Integer oldCount = likeCounts.remove(filmId);
+            if (oldCount != null) {
+                totalLikes.add(-oldCount);
+                ranking.remove(key(oldCount, filmId));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int likeCount(int filmId) {
+        return likeCounts.getOrDefault(filmId, 0);
+    }
+
+    /**
+     * Сумма лайков всех фильмов рейтинга.
+     */
+    public long totalLikes() {
+        return totalLikes.sum();
+    }
+
+    public List<Integer> top(int count) {
+        return top(count, id -> true);
+    }
+
+    /**
+     * Первые count фильмов рейтинга, прошедших фильтр; рейтинг обходится, пока их не наберётся.
+     */
+    public List<Integer> top(int count, IntPredicate filter) {
+        List<Integer> ids = new ArrayList<>(Math.max(0, Math.min(count, likeCounts.size())));
+        Set<Integer> seen = new HashSet<>();
+        for (Long key : ranking) {
+            if (ids.size() >= count) {
+                break;
+            }
+            int id = filmId(key);
+            if (seen.add(id) && filter.test(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Ключи первых count фильмов рейтинга в его порядке. Ключ фиксирует число лайков
+     * на момент обхода, поэтому списки из нескольких рейтингов можно сливать по ключам,
+     * не перечитывая изменяющиеся лайки.
+     */
+    public long[] topKeys(int count) {
+        long[] keys = new long[Math.max(0, Math.min(count, likeCounts.size()))];
+        Set<Integer> seen = new HashSet<>();
+        int size = 0;
+        for (Long key : ranking) {
+            if (size >= keys.length) {
+                break;
+            }
+            if (seen.add(filmId(key))) {
+                keys[size++] = key;
+            }
+        }
+        return size == keys.length ? keys : Arrays.copyOf(keys, size);
+    }
+
+    public static long key(int likeCount, int filmId) {
+        return ((long) likeCount << 32) | (Integer.MAX_VALUE - filmId);
+    }
+
+    public static int filmId(long key) {
+        return Integer.MAX_VALUE - (int) key;
+    }
+}
@@ -3,6 +3,8 @@ package ru.yandex.practicum.filmorate.storage.film;
 import ru.yandex.practicum.filmorate.model.Film;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface FilmStorage {
 
@@ -12,5 +14,46 @@ public interface FilmStorage {
 
     Film findById(int id);
 
+    Optional<Film> find(int id);
+
+    boolean exists(int id);
+
+    /**
+     * Фильмы в порядке ids; отсутствующие пропускаются.
+     */
+    List<Film> findAllById(int[] ids);
+
+    /**
+     * Число лайков фильма или 0, если фильма нет. Объект Film при этом не собирается.
+     */
+    int likeCount(int id);
+
     Collection<Film> findAll();
+
+    List<Film> findPage(int afterId, int limit);
+
+    boolean addLike(int filmId, int userId);
+
+    boolean removeLike(int filmId, int userId);
+
+    /**
+     * Применяет пачку лайков одного фильма. Возвращает true, если лайки фильма изменились.
+     */
+    default boolean applyLikes(int filmId, int[] likedBy, int[] unlikedBy) {
+        boolean changed = false;
+        for (int userId : likedBy) {
+            changed |= addLike(filmId, userId);
+        }
+        for (int userId : unlikedBy) {
+            changed |= removeLike(filmId, userId);
+        }
+        return changed;
+    }
+
+    List<Film> findPopular(int count);
+
+    /**
+     * Общее число лайков. Поддерживается при каждом изменении лайков, без обхода фильмов.
+     */
+    long countLikes();
 }
\ No newline at end of file
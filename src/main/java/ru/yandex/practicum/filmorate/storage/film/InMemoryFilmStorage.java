@@ -4,43 +4,162 @@ import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 public class InMemoryFilmStorage implements FilmStorage {
 
-    private final Map<Integer, Film> films = new HashMap<>();
-    private int nextId = 1;
+    private final Map<Integer, Film> films = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final FilmPopularityIndex popularity = new FilmPopularityIndex();
 
     @Override
     public Film create(Film film) {
-        film.setId(nextId++);
+        film.setId(nextId.incrementAndGet());
         films.put(film.getId(), film);
+        popularity.update(film.getId(), film.getLikes()::size);
         return film;
     }
 
+    /**
+     * Выделяет id для фильма, который затем будет добавлен через {@link #restore}.
+     */
+    public int reserveId() {
+        return nextId.incrementAndGet();
+    }
+
+    public void restore(Film film) {
+        films.put(film.getId(), film);
+        nextId.accumulateAndGet(film.getId(), Math::max);
+        popularity.update(film.getId(), film.getLikes()::size);
+    }
+
     @Override
     public Film update(Film film) {
-        if (!films.containsKey(film.getId())) {
+        if (films.replace(film.getId(), film) == null) {
             throw new NotFoundException("Фильм с id=" + film.getId() + " не найден");
         }
-        films.put(film.getId(), film);
+        popularity.update(film.getId(), film.getLikes()::size);
         return film;
     }
 
     @Override
     public Film findById(int id) {
-        Film film = films.get(id);
+        Film film = findOrNull(id);
         if (film == null) {
             throw new NotFoundException("Фильм с id=" + id + " не найден");
         }
         return film;
     }
 
+    public Film findOrNull(int id) {
+        return films.get(id);
+    }
+
+    @Override
+    public Optional<Film> find(int id) {
+        return Optional.ofNullable(films.get(id));
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return films.containsKey(id);
+    }
+
+    @Override
+    public int likeCount(int id) {
+        Film film = films.get(id);
+        return film == null ? 0 : film.getLikes().size();
+    }
+
+    @Override
+    public List<Film> findAllById(int[] ids) {
+        List<Film> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Film film = films.get(id);
+            if (film != null) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
     @Override
     public Collection<Film> findAll() {
         return films.values();
     }
+
+    @Override
+    public List<Film> findPage(int afterId, int limit) {
+        List<Film> page = new ArrayList<>(Math.min(limit, 1024));
+        int lastId = nextId.get();
+        for (int id = Math.max(afterId, 0) + 1; id <= lastId && page.size() < limit; id++) {
+            Film film = films.get(id);
+            if (film != null) {
+                page.add(film);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public boolean addLike(int filmId, int userId) {
+        Film film = findById(filmId);
+        boolean added = film.getLikes().add(userId);
+        if (added) {
+            popularity.update(filmId, film.getLikes()::size);
+        }
+        return added;
+    }
+
+    @Override
+    public boolean removeLike(int filmId, int userId) {
+        Film film = findById(filmId);
+        boolean removed = film.getLikes().remove(userId);
+        if (removed) {
+            popularity.update(filmId, film.getLikes()::size);
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean applyLikes(int filmId, int[] likedBy, int[] unlikedBy) {
+        Film film = findById(filmId);
+        boolean changed = false;
+        for (int userId : likedBy) {
+            changed |= film.getLikes().add(userId);
+        }
+        for (int userId : unlikedBy) {
+            changed |= film.getLikes().remove(userId);
+        }
+        if (changed) {
+            popularity.update(filmId, film.getLikes()::size);
+        }
+        return changed;
+    }
+
+    @Override
+    public List<Film> findPopular(int count) {
+        return popularity.top(count).stream()
+                .map(films::get)
+                .toList();
+    }
+
+    /**
+     * Ключи рейтинга первых count фильмов, см. {@link FilmPopularityIndex#topKeys(int)}.
+     */
+    public long[] findPopularKeys(int count) {
+        return popularity.topKeys(count);
+    }
+
+    @Override
+    public long countLikes() {
+        return popularity.totalLikes();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+public enum FsyncPolicy {
+    ALWAYS,
+    INTERVAL,
+    NEVER
+}
@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.IdSet;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+final class JournalCodec {
+
+    static final byte FILM_PUT = 1;
+    static final byte USER_PUT = 2;
+    static final byte LIKE_ADD = 3;
+    static final byte LIKE_REMOVE = 4;
+    static final byte FRIEND_ADD = 5;
+    static final byte FRIEND_REMOVE = 6;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private JournalCodec() {
+    }
+
+    static byte[] filmPut(Film film) {
+        return encode(out -> writeFilm(out, film));
+    }
+
+    static byte[] userPut(User user) {
+        return encode(out -> writeUser(out, user));
+    }
+
+    static byte[] pair(byte type, int first, int second) {
+        return encode(out -> {
+            out.writeByte(type);
+            out.writeInt(first);
+            out.writeInt(second);
+        });
+    }
+
+    private static void writeFilm(DataOutput out, Film film) throws IOException {
+        out.writeByte(FILM_PUT);
+        out.writeInt(film.getId());
+        writeString(out, film.getName());
+        writeString(out, film.getDescription());
+        writeDate(out, film.getReleaseDate());
+        out.writeInt(film.getDuration());
+        writeIds(out, film.getLikes());
+    }
+
+    private static void writeUser(DataOutput out, User user) throws IOException {
+        out.writeByte(USER_PUT);
+        out.writeInt(user.getId());
+        writeString(out, user.getEmail());
+        writeString(out, user.getLogin());
+        writeString(out, user.getName());
+        writeDate(out, user.getBirthday());
+        writeIds(out, user.getFriends());
+    }
+
+    static Film readFilm(ByteBuffer in) {
+        Film film = new Film();
+        film.setId(in.getInt());
+        film.setName(readString(in));
+        film.setDescription(readString(in));
+        film.setReleaseDate(readDate(in));
+        film.setDuration(in.getInt());
+        film.setLikes(readIds(in));
+        return film;
+    }
+
+    static User readUser(ByteBuffer in) {
+        User user = new User();
+        user.setId(in.getInt());
+        user.setEmail(readString(in));
+        user.setLogin(readString(in));
+        user.setName(readString(in));
+        user.setBirthday(readDate(in));
+        user.setFriends(readIds(in));
+        return user;
+    }
+
+    private static byte[] encode(Encoder encoder) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try {
+            encoder.encode(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(DataOutput out, LocalDate date) throws IOException {
+        out.writeLong(date == null ? NO_DATE : date.toEpochDay());
+    }
+
+    private static LocalDate readDate(ByteBuffer in) {
+        long epochDay = in.getLong();
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static void writeIds(DataOutput out, IdSet ids) throws IOException {
+        int[] values = ids.toIntArray();
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static IdSet readIds(ByteBuffer in) {
+        int count = in.getInt();
+        IdSet ids = new IdSet();
+        for (int i = 0; i < count; i++) {
+            ids.add(in.getInt());
+        }
+        return ids;
+    }
+
+    private interface Encoder {
+        void encode(DataOutput out) throws IOException;
+    }
+}
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.io.IOException;
+
+@Configuration
+@ConditionalOnProperty(prefix = "filmorate.journal", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(JournalProperties.class)
+public class JournalConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public StorageJournal storageJournal(JournalProperties properties, InMemoryFilmStorage filmStorage,
+                                         InMemoryUserStorage userStorage) throws IOException {
+        StorageJournal journal = new StorageJournal(properties, filmStorage, userStorage);
+        journal.open();
+        return journal;
+    }
+}
@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class JournalingFilmStorage implements FilmStorage {
+
+    private final InMemoryFilmStorage delegate;
+    private final StorageJournal journal;
+
+    @Override
+    public Film create(Film film) {
+        int id = delegate.reserveId();
+        film.setId(id);
+        return journal.apply(id, id, () -> {
+            delegate.restore(film);
+            return film;
+        }, JournalCodec::filmPut);
+    }
+
+    @Override
+    public Film update(Film film) {
+        return journal.apply(film.getId(), film.getId(), () -> delegate.update(film), JournalCodec::filmPut);
+    }
+
+    @Override
+    public Film findById(int id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Optional<Film> find(int id) {
+        return delegate.find(id);
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return delegate.exists(id);
+    }
+
+    @Override
+    public int likeCount(int id) {
+        return delegate.likeCount(id);
+    }
+
+    @Override
+    public List<Film> findAllById(int[] ids) {
+        return delegate.findAllById(ids);
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Film> findPage(int afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public boolean addLike(int filmId, int userId) {
+        return journal.apply(filmId, filmId, () -> delegate.addLike(filmId, userId),
+                added -> added ? JournalCodec.pair(JournalCodec.LIKE_ADD, filmId, userId) : null);
+    }
+
+    @Override
+    public boolean removeLike(int filmId, int userId) {
+        return journal.apply(filmId, filmId, () -> delegate.removeLike(filmId, userId),
+                removed -> removed ? JournalCodec.pair(JournalCodec.LIKE_REMOVE, filmId, userId) : null);
+    }
+
+    @Override
+    public List<Film> findPopular(int count) {
+        return delegate.findPopular(count);
+    }
+
+    @Override
+    public long countLikes() {
+        return delegate.countLikes();
+    }
+}
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class JournalingUserStorage implements UserStorage {
+
+    private final InMemoryUserStorage delegate;
+    private final StorageJournal journal;
+
+    @Override
+    public User create(User user) {
+        int id = delegate.reserveId();
+        user.setId(id);
+        return journal.apply(id, id, () -> {
+            delegate.restore(user);
+            return user;
+        }, JournalCodec::userPut);
+    }
+
+    @Override
+    public User update(User user) {
+        return journal.apply(user.getId(), user.getId(), () -> delegate.update(user), JournalCodec::userPut);
+    }
+
+    @Override
+    public User findById(int id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Optional<User> find(int id) {
+        return delegate.find(id);
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return delegate.exists(id);
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<User> findPage(int afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<User> findAllById(int[] ids) {
+        return delegate.findAllById(ids);
+    }
+
+    @Override
+    public boolean addFriend(int userId, int friendId) {
+        return journal.apply(userId, friendId, () -> delegate.addFriend(userId, friendId),
+                added -> added ? JournalCodec.pair(JournalCodec.FRIEND_ADD, userId, friendId) : null);
+    }
+
+    @Override
+    public boolean removeFriend(int userId, int friendId) {
+        return journal.apply(userId, friendId, () -> delegate.removeFriend(userId, friendId),
+                removed -> removed ? JournalCodec.pair(JournalCodec.FRIEND_REMOVE, userId, friendId) : null);
+    }
+
+    @Override
+    public long countFriendLinks() {
+        return delegate.countFriendLinks();
+    }
+
+    @Override
+    public int maxFriends() {
+        return delegate.maxFriends();
+    }
+}
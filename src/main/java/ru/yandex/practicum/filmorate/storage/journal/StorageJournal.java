@@ -0,0 +1,487 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал изменений in-memory хранилищ на локальном диске.
+ * <p>
+ * Записи пишет один поток блоками (group commit): каждый блок — это [длина][CRC32][записи].
+ * Снимок — файл snapshot-N.bin в том же блочном формате; он покрывает все сегменты
+ * журнала с номером меньше N. При старте снимок читается через отображение файла в память,
+ * после чего проигрываются сегменты с номером не меньше N.
+ */
+@Slf4j
+public class StorageJournal implements Closeable {
+
+    private static final int MAX_BATCH = 4096;
+    private static final int STRIPES = 64;
+    private static final int SNAPSHOT_MAGIC = 0x464C4D53;
+    private static final int MAX_BLOCK_BYTES = 4 << 20;
+    private static final long MAP_WINDOW_BYTES = 256L << 20;
+    private static final Pattern FILE_NAME = Pattern.compile("(journal|snapshot)-(\\d+)\\.(log|bin)");
+
+    private final JournalProperties properties;
+    private final InMemoryFilmStorage films;
+    private final InMemoryUserStorage users;
+    private final BlockingQueue<Entry> queue;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Thread writer = new Thread(this::writeLoop, "journal-writer");
+
+    private volatile boolean running = true;
+    private FileChannel segment;
+    private long segmentNumber;
+    private long lastForce = System.nanoTime();
+
+    public StorageJournal(JournalProperties properties, InMemoryFilmStorage films, InMemoryUserStorage users) {
+        if (properties.getFsyncInterval().toMillis() <= 0) {
+            throw new IllegalArgumentException("Интервал fsync должен быть не меньше 1 мс: "
+                    + properties.getFsyncInterval());
+        }
+        this.properties = properties;
+        this.films = films;
+        this.users = users;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public void open() throws IOException {
+        Path directory = properties.getDirectory();
+        Files.createDirectories(directory);
+        TreeMap<Long, Path> snapshots = new TreeMap<>();
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    long number = Long.parseLong(matcher.group(2));
+                    (matcher.group(1).equals("journal") ? segments : snapshots).put(number, file);
+                }
+            });
+        }
+
+        long started = System.nanoTime();
+        long replayFrom = 0;
+        Replay replay = new Replay();
+        if (!snapshots.isEmpty()) {
+            replayFrom = snapshots.lastKey();
+            readSnapshot(snapshots.lastEntry().getValue(), replay);
+        }
+        for (Map.Entry<Long, Path> entry : segments.tailMap(replayFrom).entrySet()) {
+            readBlocks(entry.getValue(), 0, replay);
+        }
+        log.info("Журнал восстановлен из {} за {} мс: {} записей", directory,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), replay.records);
+
+        long last = Math.max(segments.isEmpty() ? 0 : segments.lastKey(), replayFrom);
+        openSegment(last + 1);
+        writer.start();
+        long snapshotMillis = properties.getSnapshotInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotMillis, snapshotMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Выполняет изменение и ставит его запись в очередь журнала под блокировками полос
+     * обоих id, поэтому записи об одной сущности попадают в журнал в порядке изменений.
+     * Изменение применяется в памяти раньше, чем запись попадает на диск: при
+     * {@link FsyncPolicy#ALWAYS} ошибка записи выбрасывается, когда изменение уже видно
+     * читателям, и после перезапуска оно будет потеряно.
+     */
+    public <T> T apply(int firstId, int secondId, Supplier<T> mutation, Function<T, byte[]> record) {
+        int firstStripe = Math.floorMod(firstId, STRIPES);
+        int secondStripe = Math.floorMod(secondId, STRIPES);
+        ReentrantLock first = stripes[Math.min(firstStripe, secondStripe)];
+        ReentrantLock second = stripes[Math.max(firstStripe, secondStripe)];
+        T result;
+        CompletableFuture<Long> written = null;
+        first.lock();
+        second.lock();
+        try {
+            result = mutation.get();
+            byte[] bytes = record.apply(result);
+            if (bytes != null) {
+                written = enqueue(new Entry(bytes, new CompletableFuture<>()));
+            }
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+        if (written != null && properties.getFsync() == FsyncPolicy.ALWAYS) {
+            written.join();
+        }
+        return result;
+    }
+
+    public void snapshot() throws IOException {
+        long number = enqueue(new Entry(null, new CompletableFuture<>())).join();
+        Path directory = properties.getDirectory();
+        Path temporary = directory.resolve(fileName("snapshot", number) + ".tmp");
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(8).putInt(SNAPSHOT_MAGIC).putInt(1).flip();
+            channel.write(header);
+            BlockWriter block = new BlockWriter(channel);
+            for (Film film : films.findAll()) {
+                block.write(JournalCodec.filmPut(film));
+            }
+            for (User user : users.findAll()) {
+                block.write(JournalCodec.userPut(user));
+            }
+            block.flush();
+            channel.write(ByteBuffer.allocate(8));
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(fileName("snapshot", number) + ".bin"),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        deleteBefore(number);
+        log.info("Снимок {} записан за {} мс", number, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Останавливает писателя после записи очереди. Записи, попавшие в очередь уже после
+     * выхода писателя, завершаются ошибкой, чтобы ожидающие их потоки не зависли.
+     */
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Entry> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        leftover.forEach(entry -> entry.done().completeExceptionally(new IllegalStateException("Журнал закрыт")));
+        if (segment != null) {
+            segment.force(false);
+            segment.close();
+        }
+    }
+
+    /**
+     * Ставит запись в очередь. Если журнал закрылся, пока запись вставала в очередь,
+     * она забирается обратно: иначе писатель мог уже выйти и запись не завершилась бы никогда.
+     * Если забрать не удалось, запись уже у писателя или у {@link #close()}, и она будет завершена.
+     */
+    private CompletableFuture<Long> enqueue(Entry entry) {
+        if (!running) {
+            throw new IllegalStateException("Журнал закрыт");
+        }
+        try {
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Запись в журнал прервана", e);
+        }
+        if (!running && queue.remove(entry)) {
+            throw new IllegalStateException("Журнал закрыт");
+        }
+        return entry.done();
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        BlockWriter block = null;
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(properties.getFsyncInterval().toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    forceIfDue();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+            } catch (InterruptedException e) {
+                running = false;
+                queue.drainTo(batch);
+            }
+            try {
+                if (block == null) {
+                    block = new BlockWriter(segment);
+                }
+                List<Entry> written = new ArrayList<>(batch.size());
+                for (Entry entry : batch) {
+                    if (entry.record() == null) {
+                        block.flush();
+                        completeWritten(written);
+                        openSegment(segmentNumber + 1);
+                        block = new BlockWriter(segment);
+                        entry.done().complete(segmentNumber);
+                    } else {
+                        block.write(entry.record());
+                        written.add(entry);
+                    }
+                }
+                block.flush();
+                completeWritten(written);
+            } catch (IOException | RuntimeException e) {
+                log.error("Не удалось записать {} записей в журнал", batch.size(), e);
+                batch.forEach(entry -> entry.done().completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    private void completeWritten(List<Entry> written) throws IOException {
+        if (written.isEmpty()) {
+            return;
+        }
+        if (properties.getFsync() == FsyncPolicy.ALWAYS) {
+            force();
+        } else {
+            forceIfDue();
+        }
+        written.forEach(entry -> entry.done().complete(segmentNumber));
+        written.clear();
+    }
+
+    private void forceIfDue() {
+        long interval = properties.getFsyncInterval().toNanos();
+        if (properties.getFsync() != FsyncPolicy.INTERVAL || System.nanoTime() - lastForce < interval) {
+            return;
+        }
+        try {
+            force();
+        } catch (IOException e) {
+            log.error("Не удалось сбросить журнал на диск", e);
+        }
+    }
+
+    private void force() throws IOException {
+        segment.force(false);
+        lastForce = System.nanoTime();
+    }
+
+    private void openSegment(long number) throws IOException {
+        if (segment != null) {
+            segment.force(false);
+            segment.close();
+        }
+        segment = FileChannel.open(properties.getDirectory().resolve(fileName("journal", number) + ".log"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentNumber = number;
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось записать снимок хранилища", e);
+        }
+    }
+
+    private void deleteBefore(long number) throws IOException {
+        try (var files = Files.list(properties.getDirectory())) {
+            for (Path file : files.toList()) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && Long.parseLong(matcher.group(2)) < number) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private void readSnapshot(Path file, Replay replay) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 8);
+            if (header.getInt() != SNAPSHOT_MAGIC || header.getInt() != 1) {
+                throw new IOException("Неизвестный формат снимка " + file);
+            }
+        }
+        if (!readBlocks(file, 8, replay)) {
+            throw new IOException("Снимок " + file + " повреждён");
+        }
+    }
+
+    private boolean readBlocks(Path file, long start, Replay replay) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = start;
+            MappedByteBuffer window = null;
+            long windowStart = 0;
+            while (position + 8 <= size) {
+                if (window == null || position + 8 > windowStart + window.capacity()) {
+                    windowStart = position;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, MAP_WINDOW_BYTES));
+                }
+                int length = window.getInt((int) (position - windowStart));
+                int checksum = window.getInt((int) (position - windowStart) + 4);
+                if (length == 0) {
+                    return true;
+                }
+                if (length < 0 || position + 8 + length > size) {
+                    log.warn("Оборванный хвост журнала {} на позиции {}", file, position);
+                    return false;
+                }
+                if (position + 8 + length > windowStart + window.capacity()) {
+                    windowStart = position;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                            Math.min(size - position, Math.max(MAP_WINDOW_BYTES, 8L + length)));
+                }
+                ByteBuffer body = window.slice((int) (position - windowStart) + 8, length);
+                CRC32 crc = new CRC32();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Повреждённый блок журнала {} на позиции {}", file, position);
+                    return false;
+                }
+                while (body.hasRemaining()) {
+                    int recordLength = body.getInt();
+                    replay.apply(body.slice(body.position(), recordLength));
+                    body.position(body.position() + recordLength);
+                }
+                position += 8 + length;
+            }
+            return position == size;
+        }
+    }
+
+    private static String fileName(String kind, long number) {
+        return String.format("%s-%019d", kind, number);
+    }
+
+    private record Entry(byte[] record, CompletableFuture<Long> done) {
+    }
+
+    private record Deferred(IntSupplier missingId, Runnable operation) {
+    }
+
+    private static final class BlockWriter {
+
+        private final FileChannel channel;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        BlockWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void write(byte[] record) throws IOException {
+            out.writeInt(record.length);
+            out.write(record);
+            if (bytes.size() >= MAX_BLOCK_BYTES) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            if (bytes.size() == 0) {
+                return;
+            }
+            byte[] body = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            ByteBuffer block = ByteBuffer.allocate(8 + body.length)
+                    .putInt(body.length)
+                    .putInt((int) crc.getValue())
+                    .put(body)
+                    .flip();
+            while (block.hasRemaining()) {
+                channel.write(block);
+            }
+            bytes.reset();
+        }
+    }
+
+    private final class Replay {
+
+        private final Map<Integer, List<Deferred>> pendingFilms = new HashMap<>();
+        private final Map<Integer, List<Deferred>> pendingUsers = new HashMap<>();
+        private long records;
+
+        void apply(ByteBuffer record) {
+            records++;
+            byte type = record.get();
+            switch (type) {
+                case JournalCodec.FILM_PUT -> {
+                    Film film = JournalCodec.readFilm(record);
+                    films.restore(film);
+                    runPending(pendingFilms, film.getId());
+                }
+                case JournalCodec.USER_PUT -> {
+                    User user = JournalCodec.readUser(record);
+                    users.restore(user);
+                    runPending(pendingUsers, user.getId());
+                }
+                case JournalCodec.LIKE_ADD, JournalCodec.LIKE_REMOVE -> {
+                    int filmId = record.getInt();
+                    int userId = record.getInt();
+                    Runnable like = type == JournalCodec.LIKE_ADD
+                            ? () -> films.addLike(filmId, userId)
+                            : () -> films.removeLike(filmId, userId);
+                    applyOrDefer(pendingFilms, () -> filmId, like);
+                }
+                case JournalCodec.FRIEND_ADD, JournalCodec.FRIEND_REMOVE -> {
+                    int userId = record.getInt();
+                    int friendId = record.getInt();
+                    Runnable friendship = type == JournalCodec.FRIEND_ADD
+                            ? () -> users.addFriend(userId, friendId)
+                            : () -> users.removeFriend(userId, friendId);
+                    applyOrDefer(pendingUsers,
+                            () -> users.exists(userId) ? friendId : userId, friendship);
+                }
+                default -> throw new UncheckedIOException(new IOException("Неизвестный тип записи журнала " + type));
+            }
+        }
+
+        private void applyOrDefer(Map<Integer, List<Deferred>> pending, IntSupplier missingId, Runnable operation) {
+            try {
+                operation.run();
+            } catch (NotFoundException e) {
+                pending.computeIfAbsent(missingId.getAsInt(), id -> new ArrayList<>())
+                        .add(new Deferred(missingId, operation));
+            }
+        }
+
+        private void runPending(Map<Integer, List<Deferred>> pending, int id) {
+            List<Deferred> operations = pending.remove(id);
+            if (operations != null) {
+                operations.forEach(deferred -> applyOrDefer(pending, deferred.missingId(), deferred.operation()));
+            }
+        }
+    }
+}
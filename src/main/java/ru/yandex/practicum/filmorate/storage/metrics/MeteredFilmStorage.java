@@ -0,0 +1,115 @@
+package ru.yandex.practicum.filmorate.storage.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public class MeteredFilmStorage implements FilmStorage {
+
+    private static final String STORAGE = "film";
+
+    private final FilmStorage delegate;
+    private final Timer create;
+    private final Timer update;
+    private final Timer findById;
+    private final Timer find;
+    private final Timer exists;
+    private final Timer findAllById;
+    private final Timer likeCount;
+    private final Timer findPage;
+    private final Timer addLike;
+    private final Timer removeLike;
+    private final Timer applyLikes;
+    private final Timer findPopular;
+
+    public MeteredFilmStorage(FilmStorage delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        create = StorageTimers.timer(registry, STORAGE, "create");
+        update = StorageTimers.timer(registry, STORAGE, "update");
+        findById = StorageTimers.timer(registry, STORAGE, "findById");
+        find = StorageTimers.timer(registry, STORAGE, "find");
+        exists = StorageTimers.timer(registry, STORAGE, "exists");
+        findAllById = StorageTimers.timer(registry, STORAGE, "findAllById");
+        likeCount = StorageTimers.timer(registry, STORAGE, "likeCount");
+        findPage = StorageTimers.timer(registry, STORAGE, "findPage");
+        addLike = StorageTimers.timer(registry, STORAGE, "addLike");
+        removeLike = StorageTimers.timer(registry, STORAGE, "removeLike");
+        applyLikes = StorageTimers.timer(registry, STORAGE, "applyLikes");
+        findPopular = StorageTimers.timer(registry, STORAGE, "findPopular");
+    }
+
+    @Override
+    public Film create(Film film) {
+        return create.record(() -> delegate.create(film));
+    }
+
+    @Override
+    public Film update(Film film) {
+        return update.record(() -> delegate.update(film));
+    }
+
+    @Override
+    public Film findById(int id) {
+        return findById.record(() -> delegate.findById(id));
+    }
+
+    @Override
+    public Optional<Film> find(int id) {
+        return find.record(() -> delegate.find(id));
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return exists.record(() -> delegate.exists(id));
+    }
+
+    @Override
+    public List<Film> findAllById(int[] ids) {
+        return findAllById.record(() -> delegate.findAllById(ids));
+    }
+
+    @Override
+    public int likeCount(int id) {
+        return likeCount.record(() -> delegate.likeCount(id));
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Film> findPage(int afterId, int limit) {
+        return findPage.record(() -> delegate.findPage(afterId, limit));
+    }
+
+    @Override
+    public boolean addLike(int filmId, int userId) {
+        return addLike.record(() -> delegate.addLike(filmId, userId));
+    }
+
+    @Override
+    public boolean removeLike(int filmId, int userId) {
+        return removeLike.record(() -> delegate.removeLike(filmId, userId));
+    }
+
+    @Override
+    public boolean applyLikes(int filmId, int[] likedBy, int[] unlikedBy) {
+        return applyLikes.record(() -> delegate.applyLikes(filmId, likedBy, unlikedBy));
+    }
+
+    @Override
+    public List<Film> findPopular(int count) {
+        return findPopular.record(() -> delegate.findPopular(count));
+    }
+
+    @Override
+    public long countLikes() {
+        return delegate.countLikes();
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.storage.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public class MeteredUserStorage implements UserStorage {
+
+    private static final String STORAGE = "user";
+
+    private final UserStorage delegate;
+    private final Timer create;
+    private final Timer update;
+    private final Timer findById;
+    private final Timer find;
+    private final Timer exists;
+    private final Timer findPage;
+    private final Timer findAllById;
+    private final Timer addFriend;
+    private final Timer removeFriend;
+
+    public MeteredUserStorage(UserStorage delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        create = StorageTimers.timer(registry, STORAGE, "create");
+        update = StorageTimers.timer(registry, STORAGE, "update");
+        findById = StorageTimers.timer(registry, STORAGE, "findById");
+        find = StorageTimers.timer(registry, STORAGE, "find");
+        exists = StorageTimers.timer(registry, STORAGE, "exists");
+        findPage = StorageTimers.timer(registry, STORAGE, "findPage");
+        findAllById = StorageTimers.timer(registry, STORAGE, "findAllById");
+        addFriend = StorageTimers.timer(registry, STORAGE, "addFriend");
+        removeFriend = StorageTimers.timer(registry, STORAGE, "removeFriend");
+    }
+
+    @Override
+    public User create(User user) {
+        return create.record(() -> delegate.create(user));
+    }
+
+    @Override
+    public User update(User user) {
+        return update.record(() -> delegate.update(user));
+    }
+
+    @Override
+    public User findById(int id) {
+        return findById.record(() -> delegate.findById(id));
+    }
+
+    @Override
+    public Optional<User> find(int id) {
+        return find.record(() -> delegate.find(id));
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return exists.record(() -> delegate.exists(id));
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<User> findPage(int afterId, int limit) {
+        return findPage.record(() -> delegate.findPage(afterId, limit));
+    }
+
+    @Override
+    public List<User> findAllById(int[] ids) {
+        return findAllById.record(() -> delegate.findAllById(ids));
+    }
+
+    @Override
+    public boolean addFriend(int userId, int friendId) {
+        return addFriend.record(() -> delegate.addFriend(userId, friendId));
+    }
+
+    @Override
+    public boolean removeFriend(int userId, int friendId) {
+        return removeFriend.record(() -> delegate.removeFriend(userId, friendId));
+    }
+
+    @Override
+    public long countFriendLinks() {
+        return delegate.countFriendLinks();
+    }
+
+    @Override
+    public int maxFriends() {
+        return delegate.maxFriends();
+    }
+}
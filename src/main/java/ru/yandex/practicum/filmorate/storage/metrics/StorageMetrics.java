@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.storage.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+/**
+ * Гауджи по объёму данных. Значения берутся из счётчиков, которые хранилища ведут
+ * при каждом изменении: снятие метрик не обходит фильмы и пользователей и не
+ * собирает их объекты. findAll() здесь — представление, размер которого хранится.
+ */
+@Component
+@RequiredArgsConstructor
+public class StorageMetrics implements MeterBinder {
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.films", filmStorage, storage -> storage.findAll().size())
+                .description("Количество фильмов")
+                .register(registry);
+        Gauge.builder("filmorate.users", userStorage, storage -> storage.findAll().size())
+                .description("Количество пользователей")
+                .register(registry);
+        Gauge.builder("filmorate.likes", filmStorage, FilmStorage::countLikes)
+                .description("Общее количество лайков")
+                .register(registry);
+        Gauge.builder("filmorate.friend.links", userStorage, UserStorage::countFriendLinks)
+                .description("Сумма размеров списков друзей")
+                .register(registry);
+        Gauge.builder("filmorate.friends.max", userStorage, UserStorage::maxFriends)
+                .description("Размер наибольшего списка друзей")
+                .register(registry);
+    }
+}
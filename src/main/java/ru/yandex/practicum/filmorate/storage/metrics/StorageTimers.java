@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.storage.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+final class StorageTimers {
+
+    static final String NAME = "filmorate.storage";
+
+    private StorageTimers() {
+    }
+
+    static Timer timer(MeterRegistry registry, String storage, String operation) {
+        return Timer.builder(NAME)
+                .description("Время выполнения операций хранилища")
+                .tag("storage", storage)
+                .tag("operation", operation)
+                .register(registry);
+    }
+}
@@ -0,0 +1,315 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.IdSet;
+import ru.yandex.practicum.filmorate.storage.film.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Хранилище фильмов вне кучи: скалярные поля лежат в слотах фиксированного размера,
+ * строки и лайки — в блоках {@link OffHeapMemory}. Объекты Film собираются только
+ * при чтении и не связаны с хранилищем, поэтому изменять их бесполезно. В куче
+ * остаются лишь рейтинг фильмов, у которых есть лайки, и компактное множество id
+ * фильмов без лайков, которым добирается рейтинг.
+ */
+public class OffHeapFilmStorage implements FilmStorage {
+
+    private static final int DURATION = 4;
+    private static final int RELEASE_DATE = 8;
+    private static final int NAME = 16;
+    private static final int DESCRIPTION = 24;
+    private static final int LIKES = 32;
+    private static final int SLOT_SIZE = LIKES + OffHeapIdSet.BYTES;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final OffHeapMemory memory = new OffHeapMemory();
+    private final RecordTable table = new RecordTable(SLOT_SIZE);
+    private final OffHeapIdSet likes = new OffHeapIdSet(memory, table, LIKES);
+    private final FilmPopularityIndex popularity = new FilmPopularityIndex();
+    private final IdSet unliked = new IdSet();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Film create(Film film) {
+        int id = nextId.incrementAndGet();
+        film.setId(id);
+        table.ensureCapacity(id);
+        StampedLock lock = table.stripeLock(id);
+        long stamp = lock.writeLock();
+        try {
+            write(id, film);
+            table.putInt(id, RecordTable.PRESENT, 1);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        count.incrementAndGet();
+        updatePopularity(id);
+        return film;
+    }
+
+    @Override
+    public Film update(Film film) {
+        int id = film.getId();
+        StampedLock lock = table.stripeLock(id);
+        long stamp = lock.writeLock();
+        try {
+            if (!table.isPresent(id)) {
+                throw notFound(id);
+            }
+            memory.freeString(table.getLong(id, NAME));
+            memory.freeString(table.getLong(id, DESCRIPTION));
+            write(id, film);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        updatePopularity(id);
+        return film;
+    }
+
+    @Override
+    public Film findById(int id) {
+        Film film = findOrNull(id);
+        if (film == null) {
+            throw notFound(id);
+        }
+        return film;
+    }
+
+    public Film findOrNull(int id) {
+        StampedLock lock = table.stripeLock(id);
+        long stamp = lock.readLock();
+        try {
+            return table.isPresent(id) ? read(id) : null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Optional<Film> find(int id) {
+        return Optional.ofNullable(findOrNull(id));
+    }
+
+    @Override
+    public boolean exists(int id) {
+        StampedLock lock = table.stripeLock(id);
+        long stamp = lock.readLock();
+        try {
+            return table.isPresent(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public List<Film> findAllById(int[] ids) {
+        List<Film> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Film film = findOrNull(id);
+            if (film != null) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Все фильмы, собираемые по одному при обходе.
+     */
+    @Override
+    public Collection<Film> findAll() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Film> iterator() {
+                return new RecordIterator();
+            }
+
+            @Override
+            public int size() {
+                return count.get();
+            }
+        };
+    }
+
+    @Override
+    public List<Film> findPage(int afterId, int limit) {
+        List<Film> page = new ArrayList<>(Math.min(limit, 1024));
+        int lastId = nextId.get();
+        for (int id = Math.max(afterId, 0) + 1; id <= lastId && page.size() < limit; id++) {
+            Film film = findOrNull(id);
+            if (film != null) {
+                page.add(film);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public boolean addLike(int filmId, int userId) {
+        return applyLikes(filmId, new int[]{userId}, new int[0]);
+    }
+
+    @Override
+    public boolean removeLike(int filmId, int userId) {
+        return applyLikes(filmId, new int[0], new int[]{userId});
+    }
+
+    @Override
+    public boolean applyLikes(int filmId, int[] likedBy, int[] unlikedBy) {
+        boolean changed = false;
+        StampedLock lock = table.stripeLock(filmId);
+        long stamp = lock.writeLock();
+        try {
+            if (!table.isPresent(filmId)) {
+                throw notFound(filmId);
+            }
+            for (int userId : likedBy) {
+                changed |= likes.add(filmId, userId);
+            }
+            for (int userId : unlikedBy) {
+                changed |= likes.remove(filmId, userId);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (changed) {
+            updatePopularity(filmId);
+        }
+        return changed;
+    }
+
+    /**
+     * Фильмы без лайков не хранятся в рейтинге: если лайкнутых не хватает,
+     * список добирается фильмами без лайков по возрастанию id, как в общем рейтинге.
+     * Их id берутся из отдельного множества, а не перебором всех фильмов.
+     */
+    @Override
+    public List<Film> findPopular(int count) {
+        List<Film> popular = new ArrayList<>(Math.min(count, 1024));
+        Set<Integer> seen = new HashSet<>();
+        for (int id : popularity.top(count)) {
+            Film film = findOrNull(id);
+            if (film != null && seen.add(id)) {
+                popular.add(film);
+            }
+        }
+        if (popular.size() < count) {
+            for (int id : unliked.toIntArray(count)) {
+                if (popular.size() >= count) {
+                    break;
+                }
+                Film film = seen.contains(id) ? null : findOrNull(id);
+                if (film != null) {
+                    popular.add(film);
+                }
+            }
+        }
+        return popular;
+    }
+
+    @Override
+    public long countLikes() {
+        return popularity.totalLikes();
+    }
+
+    /**
+     * Память вне кучи, занятая слотами, строками и лайками.
+     */
+    public long offHeapBytes() {
+        return table.reservedBytes() + memory.reservedBytes();
+    }
+
+    private void write(int id, Film film) {
+        table.putInt(id, DURATION, film.getDuration());
+        LocalDate releaseDate = film.getReleaseDate();
+        table.putInt(id, RELEASE_DATE, releaseDate == null ? NO_DATE : (int) releaseDate.toEpochDay());
+        table.putLong(id, NAME, memory.putString(film.getName()));
+        table.putLong(id, DESCRIPTION, memory.putString(film.getDescription()));
+        likes.replace(id, film.getLikes());
+    }
+
+    private Film read(int id) {
+        Film film = new Film();
+        film.setId(id);
+        film.setDuration(table.getInt(id, DURATION));
+        int releaseDate = table.getInt(id, RELEASE_DATE);
+        film.setReleaseDate(releaseDate == NO_DATE ? null : LocalDate.ofEpochDay(releaseDate));
+        film.setName(memory.getString(table.getLong(id, NAME)));
+        film.setDescription(memory.getString(table.getLong(id, DESCRIPTION)));
+        return film.withLikes(likes.toIdSet(id));
+    }
+
+    @Override
+    public int likeCount(int id) {
+        if (id <= 0 || id > nextId.get()) {
+            return 0;
+        }
+        StampedLock lock = table.stripeLock(id);
+        long stamp = lock.readLock();
+        try {
+            return table.isPresent(id) ? likes.size(id) : 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Множество фильмов без лайков меняется под той же блокировкой фильма в рейтинге,
+     * что и сам рейтинг, поэтому последним записывается самое свежее число лайков.
+     */
+    private void updatePopularity(int id) {
+        popularity.updateLiked(id, () -> {
+            int likeCount = likeCount(id);
+            if (likeCount == 0) {
+                unliked.add(id);
+            } else {
+                unliked.remove(id);
+            }
+            return likeCount;
+        });
+    }
+
+    private static NotFoundException notFound(int id) {
+        return new NotFoundException("Фильм с id=" + id + " не найден");
+    }
+
+    private class RecordIterator implements Iterator<Film> {
+
+        private final int lastId = nextId.get();
+        private int id;
+        private Film next;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && id < lastId) {
+                next = findOrNull(++id);
+            }
+            return next != null;
+        }
+
+        @Override
+        public Film next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Film film = next;
+            next = null;
+            return film;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import ru.yandex.practicum.filmorate.model.IdSet;
+
+import java.util.Collection;
+
+/**
+ * Множества идентификаторов (лайки фильма, друзья пользователя) вне кучи. В слоте
+ * записи хранится заголовок: ссылка на блок, размер и ёмкость. Небольшое множество —
+ * отсортированный массив int, плотное — битовая карта; отрицательная ёмкость
+ * означает карту из -capacity слов. Вызывающий держит блокировку записи.
+ */
+final class OffHeapIdSet {
+
+    static final int BYTES = 16;
+
+    private static final int REF = 0;
+    private static final int SIZE = 8;
+    private static final int CAPACITY = 12;
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int BITMAP_THRESHOLD = 1_024;
+
+    private final OffHeapMemory memory;
+    private final RecordTable table;
+    private final int field;
+
+    OffHeapIdSet(OffHeapMemory memory, RecordTable table, int field) {
+        this.memory = memory;
+        this.table = table;
+        this.field = field;
+    }
+
+    int size(int id) {
+        return table.getInt(id, field + SIZE);
+    }
+
+    boolean contains(int id, int value) {
+        int capacity = capacity(id);
+        if (capacity < 0) {
+            return bitmapContains(ref(id), -capacity, value);
+        }
+        return indexOf(ref(id), size(id), value) >= 0;
+    }
+
+    boolean add(int id, int value) {
+        long ref = ref(id);
+        int size = size(id);
+        int capacity = capacity(id);
+        if (capacity < 0) {
+            if (!bitmapAdd(id, ref, -capacity, value)) {
+                return false;
+            }
+            setSize(id, size + 1);
+            return true;
+        }
+        int index = indexOf(ref, size, value);
+        if (index >= 0) {
+            return false;
+        }
+        index = -index - 1;
+        if (size == capacity) {
+            int highest = Math.max(value, size == 0 ? 0 : memory.getInt(ref, (size - 1) * Integer.BYTES));
+            int words = words(highest);
+            if (size >= BITMAP_THRESHOLD && (long) words * Long.BYTES <= (long) size * Integer.BYTES) {
+                toBitmap(id, ref, size, capacity, words);
+                return add(id, value);
+            }
+            ref = resize(id, ref, size, capacity, Math.max(INITIAL_CAPACITY, capacity * 2));
+        }
+        if (index < size) {
+            memory.copy(ref, index * Integer.BYTES, ref, (index + 1) * Integer.BYTES, (size - index) * Integer.BYTES);
+        }
+        memory.putInt(ref, index * Integer.BYTES, value);
+        setSize(id, size + 1);
+        return true;
+    }
+
+    boolean remove(int id, int value) {
+        long ref = ref(id);
+        int size = size(id);
+        int capacity = capacity(id);
+        if (capacity < 0) {
+            if (!bitmapRemove(ref, -capacity, value)) {
+                return false;
+            }
+            setSize(id, size - 1);
+            if (size - 1 < BITMAP_THRESHOLD / 2) {
+                toArray(id, ref, size - 1, -capacity);
+            }
+            return true;
+        }
+        int index = indexOf(ref, size, value);
+        if (index < 0) {
+            return false;
+        }
+        if (index < size - 1) {
+            memory.copy(ref, (index + 1) * Integer.BYTES, ref, index * Integer.BYTES, (size - index - 1) * Integer.BYTES);
+        }
+        setSize(id, size - 1);
+        if (size - 1 == 0) {
+            release(id);
+        }
+        return true;
+    }
+
+    void replace(int id, Collection<Integer> values) {
+        release(id);
+        for (int value : values instanceof IdSet ids ? ids.toIntArray() : toArray(values)) {
+            add(id, value);
+        }
+    }
+
+    void release(int id) {
+        int capacity = capacity(id);
+        if (capacity != 0) {
+            memory.free(ref(id), blockBytes(capacity));
+        }
+        table.putLong(id, field + REF, OffHeapMemory.NULL);
+        table.putInt(id, field + SIZE, 0);
+        table.putInt(id, field + CAPACITY, 0);
+    }
+
+    IdSet toIdSet(int id) {
+        IdSet ids = new IdSet();
+        for (int value : toIntArray(id)) {
+            ids.add(value);
+        }
+        return ids;
+    }
+
+    int[] toIntArray(int id) {
+        long ref = ref(id);
+        int size = size(id);
+        int capacity = capacity(id);
+        int[] values = new int[size];
+        if (capacity < 0) {
+            int count = 0;
+            for (int word = 0; word < -capacity && count < size; word++) {
+                long bits = memory.getLong(ref, word * Long.BYTES);
+                while (bits != 0) {
+                    values[count++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                }
+            }
+            return values;
+        }
+        for (int i = 0; i < size; i++) {
+            values[i] = memory.getInt(ref, i * Integer.BYTES);
+        }
+        return values;
+    }
+
+    private int indexOf(long ref, int size, int value) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int current = memory.getInt(ref, middle * Integer.BYTES);
+            if (current < value) {
+                low = middle + 1;
+            } else if (current > value) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private long resize(int id, long ref, int size, int capacity, int newCapacity) {
+        long resized = memory.allocate(newCapacity * Integer.BYTES);
+        if (size > 0) {
+            memory.copy(ref, 0, resized, 0, size * Integer.BYTES);
+        }
+        if (capacity > 0) {
+            memory.free(ref, capacity * Integer.BYTES);
+        }
+        table.putLong(id, field + REF, resized);
+        table.putInt(id, field + CAPACITY, newCapacity);
+        return resized;
+    }
+
+    private void toBitmap(int id, long ref, int size, int capacity, int words) {
+        long bitmap = memory.allocate(words * Long.BYTES);
+        memory.clear(bitmap, words * Long.BYTES);
+        for (int i = 0; i < size; i++) {
+            setBit(bitmap, memory.getInt(ref, i * Integer.BYTES));
+        }
+        memory.free(ref, capacity * Integer.BYTES);
+        table.putLong(id, field + REF, bitmap);
+        table.putInt(id, field + CAPACITY, -words);
+    }
+
+    private void toArray(int id, long bitmap, int size, int words) {
+        int[] values = toIntArray(id);
+        int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, size)) * 2);
+        long ref = memory.allocate(capacity * Integer.BYTES);
+        for (int i = 0; i < size; i++) {
+            memory.putInt(ref, i * Integer.BYTES, values[i]);
+        }
+        memory.free(bitmap, words * Long.BYTES);
+        table.putLong(id, field + REF, ref);
+        table.putInt(id, field + CAPACITY, capacity);
+    }
+
+    private boolean bitmapAdd(int id, long bitmap, int words, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Отрицательный идентификатор: " + value);
+        }
+        if ((value >>> 6) >= words) {
+            int grown = Math.max(words * 2, words(value));
+            long resized = memory.allocate(grown * Long.BYTES);
+            memory.clear(resized, grown * Long.BYTES);
+            memory.copy(bitmap, 0, resized, 0, words * Long.BYTES);
+            memory.free(bitmap, words * Long.BYTES);
+            table.putLong(id, field + REF, resized);
+            table.putInt(id, field + CAPACITY, -grown);
+            bitmap = resized;
+            words = grown;
+        }
+        if (bitmapContains(bitmap, words, value)) {
+            return false;
+        }
+        setBit(bitmap, value);
+        return true;
+    }
+
+    private boolean bitmapRemove(long bitmap, int words, int value) {
+        if (!bitmapContains(bitmap, words, value)) {
+            return false;
+        }
+        int offset = (value >>> 6) * Long.BYTES;
+        memory.putLong(bitmap, offset, memory.getLong(bitmap, offset) & ~(1L << value));
+        return true;
+    }
+
+    private boolean bitmapContains(long bitmap, int words, int value) {
+        return value >= 0 && (value >>> 6) < words
+                && (memory.getLong(bitmap, (value >>> 6) * Long.BYTES) & (1L << value)) != 0;
+    }
+
+    private void setBit(long bitmap, int value) {
+        int offset = (value >>> 6) * Long.BYTES;
+        memory.putLong(bitmap, offset, memory.getLong(bitmap, offset) | (1L << value));
+    }
+
+    private long ref(int id) {
+        return table.getLong(id, field + REF);
+    }
+
+    private int capacity(int id) {
+        return table.getInt(id, field + CAPACITY);
+    }
+
+    private void setSize(int id, int size) {
+        table.putInt(id, field + SIZE, size);
+    }
+
+    private static int words(int highest) {
+        return (highest >>> 6) + 1;
+    }
+
+    private static int blockBytes(int capacity) {
+        return capacity < 0 ? -capacity * Long.BYTES : capacity * Integer.BYTES;
+    }
+
+    private static int[] toArray(Collection<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+    }
+}
@@ -0,0 +1,176 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Распределитель памяти вне кучи. Блоки нарезаются из страниц direct ByteBuffer
+ * по классам размеров-степеням двойки; освобождённый блок попадает в список своего
+ * класса, а ссылка на следующий свободный блок хранится в нём самом, поэтому
+ * учёт свободной памяти не создаёт объектов в куче. Блок больше страницы получает
+ * собственный буфер размером в степень двойки, не больше 1 ГиБ; освобождённый, он
+ * так же ждёт в списке своего класса следующего блока того же размера. Память
+ * системе не возвращается: занято столько, сколько было нужно в пике. Ссылка на
+ * блок — long: номер страницы в старших 32 битах, смещение в младших.
+ * <p>
+ * Распределитель не следит за тем, кто читает блоки: владелец записи должен
+ * освобождать блок только тогда, когда его больше никто не читает.
+ */
+final class OffHeapMemory {
+
+    static final long NULL = -1;
+
+    private static final int PAGE_SHIFT = 22;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int MIN_BLOCK_SHIFT = 4;
+    private static final int MAX_BLOCK_SHIFT = 30;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] freeBlocks = new long[MAX_BLOCK_SHIFT + 1];
+    private volatile ByteBuffer[] pages = new ByteBuffer[16];
+    private int pageCount;
+    private int currentPage = -1;
+    private int currentOffset = PAGE_SIZE;
+    private volatile long reservedBytes;
+
+    OffHeapMemory() {
+        Arrays.fill(freeBlocks, NULL);
+    }
+
+    long allocate(int bytes) {
+        int shift = blockShift(bytes);
+        lock.lock();
+        try {
+            long free = freeBlocks[shift];
+            if (free != NULL) {
+                freeBlocks[shift] = getLong(free, 0);
+                return free;
+            }
+            if (shift > PAGE_SHIFT) {
+                return ref(addPage(1 << shift), 0);
+            }
+            int size = 1 << shift;
+            if (currentOffset + size > PAGE_SIZE) {
+                currentPage = addPage(PAGE_SIZE);
+                currentOffset = 0;
+            }
+            long ref = ref(currentPage, currentOffset);
+            currentOffset += size;
+            return ref;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void free(long ref, int bytes) {
+        if (ref == NULL) {
+            return;
+        }
+        int shift = blockShift(bytes);
+        lock.lock();
+        try {
+            putLong(ref, 0, freeBlocks[shift]);
+            freeBlocks[shift] = ref;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Объём памяти вне кучи, занятый страницами, включая свободные блоки.
+     */
+    long reservedBytes() {
+        return reservedBytes;
+    }
+
+    int getInt(long ref, int offset) {
+        return buffer(ref).getInt(offset(ref) + offset);
+    }
+
+    void putInt(long ref, int offset, int value) {
+        buffer(ref).putInt(offset(ref) + offset, value);
+    }
+
+    long getLong(long ref, int offset) {
+        return buffer(ref).getLong(offset(ref) + offset);
+    }
+
+    void putLong(long ref, int offset, long value) {
+        buffer(ref).putLong(offset(ref) + offset, value);
+    }
+
+    void copy(long from, int fromOffset, long to, int toOffset, int bytes) {
+        buffer(to).put(offset(to) + toOffset, buffer(from), offset(from) + fromOffset, bytes);
+    }
+
+    void clear(long ref, int bytes) {
+        ByteBuffer buffer = buffer(ref);
+        int offset = offset(ref);
+        for (int i = 0; i < bytes; i += Long.BYTES) {
+            buffer.putLong(offset + i, 0);
+        }
+    }
+
+    long putString(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long ref = allocate(Integer.BYTES + bytes.length);
+        putInt(ref, 0, bytes.length);
+        buffer(ref).put(offset(ref) + Integer.BYTES, bytes);
+        return ref;
+    }
+
+    String getString(long ref) {
+        if (ref == NULL) {
+            return null;
+        }
+        byte[] bytes = new byte[getInt(ref, 0)];
+        buffer(ref).get(offset(ref) + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    void freeString(long ref) {
+        if (ref != NULL) {
+            free(ref, Integer.BYTES + getInt(ref, 0));
+        }
+    }
+
+    private int addPage(int capacity) {
+        ByteBuffer[] current = pages;
+        if (pageCount == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[pageCount] = ByteBuffer.allocateDirect(capacity);
+        pages = current;
+        reservedBytes += capacity;
+        return pageCount++;
+    }
+
+    private ByteBuffer buffer(long ref) {
+        return pages[page(ref)];
+    }
+
+    private static int blockShift(int bytes) {
+        if (bytes > 1 << MAX_BLOCK_SHIFT) {
+            throw new IllegalArgumentException("Блок больше 1 ГиБ: " + bytes + " байт");
+        }
+        int size = Math.max(bytes, Long.BYTES);
+        return Math.max(MIN_BLOCK_SHIFT, 32 - Integer.numberOfLeadingZeros(size - 1));
+    }
+
+    private static long ref(int page, int offset) {
+        return ((long) page << 32) | offset;
+    }
+
+    private static int page(long ref) {
+        return (int) (ref >>> 32);
+    }
+
+    private static int offset(long ref) {
+        return (int) ref;
+    }
+}
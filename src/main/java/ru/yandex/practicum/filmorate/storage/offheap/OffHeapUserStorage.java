@@ -0,0 +1,276 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.FriendDegrees;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Хранилище пользователей вне кучи, устроенное так же, как {@link OffHeapFilmStorage}.
+ * Дружба меняет две записи сразу, поэтому их блокировки берутся в порядке полос.
+ */
+public class OffHeapUserStorage implements UserStorage {
+
+    private static final int BIRTHDAY = 4;
+    private static final int EMAIL = 8;
+    private static final int LOGIN = 16;
+    private static final int NAME = 24;
+    private static final int FRIENDS = 32;
+    private static final int SLOT_SIZE = FRIENDS + OffHeapIdSet.BYTES;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final OffHeapMemory memory = new OffHeapMemory();
+    private final RecordTable table = new RecordTable(SLOT_SIZE);
+    private final OffHeapIdSet friends = new OffHeapIdSet(memory, table, FRIENDS);
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final AtomicInteger count = new AtomicInteger();
+    private final LongAdder friendLinks = new LongAdder();
+    private final FriendDegrees degrees = new FriendDegrees();
+
+    @Override
+    public User create(User user) {
+        int id = nextId.incrementAndGet();
+        user.setId(id);
+        table.ensureCapacity(id);
+        StampedLock lock = table.stripeLock(id);
+        long stamp = lock.writeLock();
+        try {
+            write(id, user);
+            table.putInt(id, RecordTable.PRESENT, 1);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        count.incrementAndGet();
+        return user;
+    }
+
+    @Override
+    public User update(User user) {
+        int id = user.getId();
+        StampedLock lock = table.stripeLock(id);
+        long stamp = lock.writeLock();
+        try {
+            if (!table.isPresent(id)) {
+                throw notFound(id);
+            }
+            memory.freeString(table.getLong(id, EMAIL));
+            memory.freeString(table.getLong(id, LOGIN));
+            memory.freeString(table.getLong(id, NAME));
+            write(id, user);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return user;
+    }
+
+    @Override
+    public User findById(int id) {
+        User user = findOrNull(id);
+        if (user == null) {
+            throw notFound(id);
+        }
+        return user;
+    }
+
+    public User findOrNull(int id) {
+        StampedLock lock = table.stripeLock(id);
+        long stamp = lock.readLock();
+        try {
+            return table.isPresent(id) ? read(id) : null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Optional<User> find(int id) {
+        return Optional.ofNullable(findOrNull(id));
+    }
+
+    @Override
+    public boolean exists(int id) {
+        StampedLock lock = table.stripeLock(id);
+        long stamp = lock.readLock();
+        try {
+            return table.isPresent(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Все пользователи, собираемые по одному при обходе.
+     */
+    @Override
+    public Collection<User> findAll() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<User> iterator() {
+                return new RecordIterator();
+            }
+
+            @Override
+            public int size() {
+                return count.get();
+            }
+        };
+    }
+
+    @Override
+    public List<User> findPage(int afterId, int limit) {
+        List<User> page = new ArrayList<>(Math.min(limit, 1024));
+        int lastId = nextId.get();
+        for (int id = Math.max(afterId, 0) + 1; id <= lastId && page.size() < limit; id++) {
+            User user = findOrNull(id);
+            if (user != null) {
+                page.add(user);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<User> findAllById(int[] ids) {
+        List<User> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            User user = findOrNull(id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean addFriend(int userId, int friendId) {
+        return changeFriendship(userId, friendId, true);
+    }
+
+    @Override
+    public boolean removeFriend(int userId, int friendId) {
+        return changeFriendship(userId, friendId, false);
+    }
+
+    @Override
+    public long countFriendLinks() {
+        return friendLinks.sum();
+    }
+
+    @Override
+    public int maxFriends() {
+        return degrees.max();
+    }
+
+    /**
+     * Память вне кучи, занятая слотами, строками и списками друзей.
+     */
+    public long offHeapBytes() {
+        return table.reservedBytes() + memory.reservedBytes();
+    }
+
+    private boolean changeFriendship(int userId, int friendId, boolean add) {
+        StampedLock first = table.lock(Math.min(table.stripe(userId), table.stripe(friendId)));
+        StampedLock second = table.lock(Math.max(table.stripe(userId), table.stripe(friendId)));
+        long firstStamp = first.writeLock();
+        long secondStamp = second == first ? 0 : second.writeLock();
+        try {
+            if (!table.isPresent(userId)) {
+                throw notFound(userId);
+            }
+            if (!table.isPresent(friendId)) {
+                throw notFound(friendId);
+            }
+            if (add) {
+                int added = linked(userId, friends.add(userId, friendId), 1)
+                        + linked(friendId, friends.add(friendId, userId), 1);
+                friendLinks.add(added);
+                return added > 0;
+            }
+            int removed = linked(userId, friends.remove(userId, friendId), -1)
+                    + linked(friendId, friends.remove(friendId, userId), -1);
+            friendLinks.add(-removed);
+            return removed > 0;
+        } finally {
+            if (second != first) {
+                second.unlockWrite(secondStamp);
+            }
+            first.unlockWrite(firstStamp);
+        }
+    }
+
+    private void write(int id, User user) {
+        LocalDate birthday = user.getBirthday();
+        table.putInt(id, BIRTHDAY, birthday == null ? NO_DATE : (int) birthday.toEpochDay());
+        table.putLong(id, EMAIL, memory.putString(user.getEmail()));
+        table.putLong(id, LOGIN, memory.putString(user.getLogin()));
+        table.putLong(id, NAME, memory.putString(user.getName()));
+        int before = friends.size(id);
+        friendLinks.add(user.getFriends().size() - before);
+        degrees.moved(before, user.getFriends().size());
+        friends.replace(id, user.getFriends());
+    }
+
+    /**
+     * Учитывает в гистограмме изменение списка друзей id на delta; вызывается под блокировкой полосы.
+     */
+    private int linked(int id, boolean changed, int delta) {
+        if (!changed) {
+            return 0;
+        }
+        int size = friends.size(id);
+        degrees.moved(size - delta, size);
+        return 1;
+    }
+
+    private User read(int id) {
+        User user = new User();
+        user.setId(id);
+        int birthday = table.getInt(id, BIRTHDAY);
+        user.setBirthday(birthday == NO_DATE ? null : LocalDate.ofEpochDay(birthday));
+        user.setEmail(memory.getString(table.getLong(id, EMAIL)));
+        user.setLogin(memory.getString(table.getLong(id, LOGIN)));
+        user.setName(memory.getString(table.getLong(id, NAME)));
+        return user.withFriends(friends.toIdSet(id));
+    }
+
+    private static NotFoundException notFound(int id) {
+        return new NotFoundException("Пользователь с id=" + id + " не найден");
+    }
+
+    private class RecordIterator implements Iterator<User> {
+
+        private final int lastId = nextId.get();
+        private int id;
+        private User next;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && id < lastId) {
+                next = findOrNull(++id);
+            }
+            return next != null;
+        }
+
+        @Override
+        public User next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            User user = next;
+            next = null;
+            return user;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Записи фиксированного размера вне кучи, адресуемые идентификатором: слот записи
+ * id лежит в странице id / PAGE_RECORDS. Страницы только добавляются, поэтому
+ * слоты не перемещаются. Доступ к записи и всему, на что она ссылается,
+ * сериализуется полосатыми StampedLock из {@link #stripeLock(int)}.
+ */
+final class RecordTable {
+
+    static final int PRESENT = 0;
+
+    private static final int PAGE_SHIFT = 14;
+    private static final int PAGE_RECORDS = 1 << PAGE_SHIFT;
+    private static final int STRIPES = 64;
+
+    private final int slotSize;
+    private final ReentrantLock growLock = new ReentrantLock();
+    private final StampedLock[] locks = new StampedLock[STRIPES];
+    private volatile ByteBuffer[] pages = new ByteBuffer[0];
+
+    RecordTable(int slotSize) {
+        this.slotSize = slotSize;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new StampedLock();
+        }
+    }
+
+    StampedLock stripeLock(int id) {
+        return locks[stripe(id)];
+    }
+
+    int stripe(int id) {
+        return Math.floorMod(id, STRIPES);
+    }
+
+    StampedLock lock(int stripe) {
+        return locks[stripe];
+    }
+
+    void ensureCapacity(int id) {
+        int page = id >>> PAGE_SHIFT;
+        if (page < pages.length) {
+            return;
+        }
+        growLock.lock();
+        try {
+            ByteBuffer[] current = pages;
+            if (page < current.length) {
+                return;
+            }
+            ByteBuffer[] grown = Arrays.copyOf(current, Math.max(page + 1, current.length * 2));
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = ByteBuffer.allocateDirect(PAGE_RECORDS * slotSize);
+            }
+            pages = grown;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    boolean isPresent(int id) {
+        return id > 0 && (id >>> PAGE_SHIFT) < pages.length && getInt(id, PRESENT) != 0;
+    }
+
+    int getInt(int id, int field) {
+        return page(id).getInt(offset(id) + field);
+    }
+
+    void putInt(int id, int field, int value) {
+        page(id).putInt(offset(id) + field, value);
+    }
+
+    long getLong(int id, int field) {
+        return page(id).getLong(offset(id) + field);
+    }
+
+    void putLong(int id, int field, long value) {
+        page(id).putLong(offset(id) + field, value);
+    }
+
+    long reservedBytes() {
+        return (long) pages.length * PAGE_RECORDS * slotSize;
+    }
+
+    private ByteBuffer page(int id) {
+        return pages[id >>> PAGE_SHIFT];
+    }
+
+    private int offset(int id) {
+        return (id & (PAGE_RECORDS - 1)) * slotSize;
+    }
+}
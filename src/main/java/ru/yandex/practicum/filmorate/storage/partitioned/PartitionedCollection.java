@@ -0,0 +1,133 @@
+package ru.yandex.practicum.filmorate.storage.partitioned;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Объединение коллекций партиций. Сплитератор сначала делит список партиций пополам,
+ * а одиночную партицию отдаёт её собственному сплитератору, поэтому parallelStream()
+ * раскладывает полный проход по ядрам ForkJoin-пула.
+ */
+final class PartitionedCollection<T> extends AbstractCollection<T> {
+
+    private final List<? extends Collection<T>> parts;
+
+    PartitionedCollection(List<? extends Collection<T>> parts) {
+        this.parts = parts;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Collection<T> part : parts) {
+            size += part.size();
+        }
+        return size;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int index;
+            private Iterator<T> current = parts.isEmpty() ? null : parts.get(0).iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (current != null && !current.hasNext()) {
+                    index++;
+                    current = index < parts.size() ? parts.get(index).iterator() : null;
+                }
+                return current != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return new PartsSpliterator(0, parts.size());
+    }
+
+    private final class PartsSpliterator implements Spliterator<T> {
+
+        private int from;
+        private final int to;
+        private Spliterator<T> current;
+
+        PartsSpliterator(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (true) {
+                if (current == null) {
+                    if (from >= to) {
+                        return false;
+                    }
+                    current = parts.get(from++).spliterator();
+                }
+                if (current.tryAdvance(action)) {
+                    return true;
+                }
+                current = null;
+            }
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (current != null) {
+                current.forEachRemaining(action);
+                current = null;
+            }
+            while (from < to) {
+                parts.get(from++).spliterator().forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (current != null) {
+                return from == to ? current.trySplit() : null;
+            }
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                Spliterator<T> prefix = new PartsSpliterator(from, middle);
+                from = middle;
+                return prefix;
+            }
+            if (to - from == 1) {
+                current = parts.get(from++).spliterator();
+                return current.trySplit();
+            }
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = current != null ? current.estimateSize() : 0;
+            for (int i = from; i < to; i++) {
+                size += parts.get(i).size();
+            }
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.NONNULL;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate.storage.partitioned;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фильмы, разложенные по партициям по id. У каждой партиции своя карта и свой
+ * рейтинг, поэтому лайки разных фильмов не конкурируют за общие структуры,
+ * а популярное собирается scatter-gather: top-K каждой партиции параллельно
+ * в ForkJoin-пуле, затем слияние в общий top-K. Сливаются ключи рейтингов партиций
+ * с числом лайков на момент выборки, а не живые множества лайков фильмов, поэтому
+ * параллельные лайки не меняют ключи во время сортировки.
+ */
+public class PartitionedFilmStorage implements FilmStorage {
+
+    private final List<InMemoryFilmStorage> partitions = new ArrayList<>();
+    private final ForkJoinPool pool;
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final Collection<Film> all;
+
+    public PartitionedFilmStorage(int partitionCount, ForkJoinPool pool) {
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new InMemoryFilmStorage());
+        }
+        this.pool = pool;
+        all = new PartitionedCollection<>(partitions.stream().map(InMemoryFilmStorage::findAll).toList());
+    }
+
+    @Override
+    public Film create(Film film) {
+        film.setId(nextId.incrementAndGet());
+        partition(film.getId()).restore(film);
+        return film;
+    }
+
+    @Override
+    public Film update(Film film) {
+        return partition(film.getId()).update(film);
+    }
+
+    @Override
+    public Film findById(int id) {
+        return partition(id).findById(id);
+    }
+
+    @Override
+    public Optional<Film> find(int id) {
+        return partition(id).find(id);
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return partition(id).exists(id);
+    }
+
+    @Override
+    public int likeCount(int id) {
+        return partition(id).likeCount(id);
+    }
+
+    @Override
+    public List<Film> findAllById(int[] ids) {
+        List<Film> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Film film = partition(id).findOrNull(id);
+            if (film != null) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        return all;
+    }
+
+    @Override
+    public List<Film> findPage(int afterId, int limit) {
+        List<Film> page = new ArrayList<>(Math.min(limit, 1024));
+        int lastId = nextId.get();
+        for (int id = Math.max(afterId, 0) + 1; id <= lastId && page.size() < limit; id++) {
+            Film film = partition(id).findOrNull(id);
+            if (film != null) {
+                page.add(film);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public boolean addLike(int filmId, int userId) {
+        return partition(filmId).addLike(filmId, userId);
+    }
+
+    @Override
+    public boolean removeLike(int filmId, int userId) {
+        return partition(filmId).removeLike(filmId, userId);
+    }
+
+    @Override
+    public boolean applyLikes(int filmId, int[] likedBy, int[] unlikedBy) {
+        return partition(filmId).applyLikes(filmId, likedBy, unlikedBy);
+    }
+
+    @Override
+    public List<Film> findPopular(int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+        List<long[]> tops = pool.submit(() -> partitions.parallelStream()
+                .map(partition -> partition.findPopularKeys(count))
+                .toList()).join();
+        long[] merged = new long[tops.stream().mapToInt(keys -> keys.length).sum()];
+        int offset = 0;
+        for (long[] keys : tops) {
+            System.arraycopy(keys, 0, merged, offset, keys.length);
+            offset += keys.length;
+        }
+        Arrays.sort(merged);
+        List<Film> popular = new ArrayList<>(Math.min(count, merged.length));
+        for (int i = merged.length - 1; i >= 0 && popular.size() < count; i--) {
+            int id = FilmPopularityIndex.filmId(merged[i]);
+            Film film = partition(id).findOrNull(id);
+            if (film != null) {
+                popular.add(film);
+            }
+        }
+        return popular;
+    }
+
+    private InMemoryFilmStorage partition(int id) {
+        return partitions.get(Math.floorMod(id, partitions.size()));
+    }
+
+    @Override
+    public long countLikes() {
+        long likes = 0;
+        for (InMemoryFilmStorage partition : partitions) {
+            likes += partition.countLikes();
+        }
+        return likes;
+    }
+}
@@ -0,0 +1,130 @@
+package ru.yandex.practicum.filmorate.storage.partitioned;
+
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.FriendDegrees;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пользователи, разложенные по партициям по id, как в {@link PartitionedFilmStorage}.
+ * Дружба может связывать пользователей из разных партиций, поэтому обе стороны
+ * меняются здесь, а не внутри партиции, и изменения связей считаются здесь же.
+ * Гистограмма размеров списков друзей одна на все партиции.
+ */
+public class PartitionedUserStorage implements UserStorage {
+
+    private final List<InMemoryUserStorage> partitions = new ArrayList<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final LongAdder friendLinks = new LongAdder();
+    private final FriendDegrees degrees = new FriendDegrees();
+    private final Collection<User> all;
+
+    public PartitionedUserStorage(int partitionCount) {
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new InMemoryUserStorage(degrees));
+        }
+        all = new PartitionedCollection<>(partitions.stream().map(InMemoryUserStorage::findAll).toList());
+    }
+
+    @Override
+    public User create(User user) {
+        user.setId(nextId.incrementAndGet());
+        partition(user.getId()).restore(user);
+        return user;
+    }
+
+    @Override
+    public User update(User user) {
+        return partition(user.getId()).update(user);
+    }
+
+    @Override
+    public User findById(int id) {
+        return partition(id).findById(id);
+    }
+
+    @Override
+    public Optional<User> find(int id) {
+        return partition(id).find(id);
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return partition(id).exists(id);
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return all;
+    }
+
+    @Override
+    public List<User> findPage(int afterId, int limit) {
+        List<User> page = new ArrayList<>(Math.min(limit, 1024));
+        int lastId = nextId.get();
+        for (int id = Math.max(afterId, 0) + 1; id <= lastId && page.size() < limit; id++) {
+            User user = partition(id).findOrNull(id);
+            if (user != null) {
+                page.add(user);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<User> findAllById(int[] ids) {
+        List<User> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            User user = partition(id).findOrNull(id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean addFriend(int userId, int friendId) {
+        User user = findById(userId);
+        User friend = findById(friendId);
+        int added = (degrees.link(user.getFriends(), friendId) ? 1 : 0)
+                + (degrees.link(friend.getFriends(), userId) ? 1 : 0);
+        friendLinks.add(added);
+        return added > 0;
+    }
+
+    @Override
+    public boolean removeFriend(int userId, int friendId) {
+        User user = findById(userId);
+        User friend = findById(friendId);
+        int removed = (degrees.unlink(user.getFriends(), friendId) ? 1 : 0)
+                + (degrees.unlink(friend.getFriends(), userId) ? 1 : 0);
+        friendLinks.add(-removed);
+        return removed > 0;
+    }
+
+    @Override
+    public long countFriendLinks() {
+        long links = friendLinks.sum();
+        for (InMemoryUserStorage partition : partitions) {
+            links += partition.countFriendLinks();
+        }
+        return links;
+    }
+
+    @Override
+    public int maxFriends() {
+        return degrees.max();
+    }
+
+    private InMemoryUserStorage partition(int id) {
+        return partitions.get(Math.floorMod(id, partitions.size()));
+    }
+}
@@ -0,0 +1,155 @@
+package ru.yandex.practicum.filmorate.storage.snapshot;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Неизменяемое отображение неотрицательных int-ключей в значения: префиксное дерево
+ * по 5 бит ключа на уровень. Запись копирует только путь от корня до листа
+ * (O(log32 n) массивов), остальные узлы новая версия делит со старой.
+ */
+final class PersistentIntMap<V> {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(new Object[WIDTH], 0, 0);
+
+    private final Object[] root;
+    private final int shift;
+    private final int size;
+
+    private PersistentIntMap(Object[] root, int shift, int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        if (key < 0 || !fits(key, shift)) {
+            return null;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(key >>> level) & MASK];
+            if (node == null) {
+                return null;
+            }
+        }
+        return (V) node[key & MASK];
+    }
+
+    PersistentIntMap<V> with(int key, V value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Отрицательный ключ: " + key);
+        }
+        Object[] newRoot = root;
+        int newShift = shift;
+        while (!fits(key, newShift)) {
+            Object[] grown = new Object[WIDTH];
+            grown[0] = newRoot;
+            newRoot = grown;
+            newShift += BITS;
+        }
+        int[] added = new int[1];
+        newRoot = set(newRoot, newShift, key, value, added);
+        return new PersistentIntMap<>(newRoot, newShift, size + added[0]);
+    }
+
+    Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator<>(root, shift);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static boolean fits(int key, int shift) {
+        return shift + BITS >= Integer.SIZE || key >>> (shift + BITS) == 0;
+    }
+
+    private static Object[] set(Object[] node, int level, int key, Object value, int[] added) {
+        Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+        int index = (key >>> level) & MASK;
+        if (level == 0) {
+            if (copy[index] == null) {
+                added[0] = 1;
+            }
+            copy[index] = value;
+        } else {
+            copy[index] = set((Object[]) copy[index], level - BITS, key, value, added);
+        }
+        return copy;
+    }
+
+    private static final class ValueIterator<V> implements Iterator<V> {
+
+        private final Object[][] path = new Object[Integer.SIZE / BITS + 1][];
+        private final int[] positions = new int[path.length];
+        private final int depth;
+        private int top;
+        private Object next;
+
+        ValueIterator(Object[] root, int shift) {
+            path[0] = root;
+            depth = shift / BITS;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            V result = (V) next;
+            advance();
+            return result;
+        }
+
+        private void advance() {
+            next = null;
+            while (top >= 0) {
+                if (positions[top] == WIDTH) {
+                    top--;
+                    continue;
+                }
+                Object child = path[top][positions[top]++];
+                if (child == null) {
+                    continue;
+                }
+                if (top == depth) {
+                    next = child;
+                    return;
+                }
+                top++;
+                path[top] = (Object[]) child;
+                positions[top] = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package ru.yandex.practicum.filmorate.storage.snapshot;
+
+import java.util.Arrays;
+
+/**
+ * Неизменяемое упорядоченное множество long-ключей рейтинга (декартово дерево
+ * с копированием пути). Вставка и удаление создают O(log n) новых узлов,
+ * старые версии продолжают читаться без блокировок.
+ */
+final class PersistentRanking {
+
+    static final PersistentRanking EMPTY = new PersistentRanking(null);
+
+    private final Node root;
+
+    private PersistentRanking(Node root) {
+        this.root = root;
+    }
+
+    PersistentRanking with(long key) {
+        return new PersistentRanking(insert(root, key, priority(key)));
+    }
+
+    PersistentRanking without(long key) {
+        return new PersistentRanking(delete(root, key));
+    }
+
+    /**
+     * Заполняет target наибольшими ключами по убыванию и возвращает их количество.
+     */
+    int top(long[] target) {
+        Node[] stack = new Node[64];
+        int depth = 0;
+        int count = 0;
+        Node node = root;
+        while ((node != null || depth > 0) && count < target.length) {
+            while (node != null) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = node.right;
+            }
+            node = stack[--depth];
+            target[count++] = node.key;
+            node = node.left;
+        }
+        return count;
+    }
+
+    private static Node insert(Node node, long key, int priority) {
+        if (node == null) {
+            return new Node(key, priority, null, null);
+        }
+        if (key == node.key) {
+            return node;
+        }
+        if (priority > node.priority) {
+            Node[] parts = split(node, key);
+            return new Node(key, priority, parts[0], parts[1]);
+        }
+        if (key < node.key) {
+            return new Node(node.key, node.priority, insert(node.left, key, priority), node.right);
+        }
+        return new Node(node.key, node.priority, node.left, insert(node.right, key, priority));
+    }
+
+    private static Node delete(Node node, long key) {
+        if (node == null) {
+            return null;
+        }
+        if (key == node.key) {
+            return merge(node.left, node.right);
+        }
+        if (key < node.key) {
+            Node left = delete(node.left, key);
+            return left == node.left ? node : new Node(node.key, node.priority, left, node.right);
+        }
+        Node right = delete(node.right, key);
+        return right == node.right ? node : new Node(node.key, node.priority, node.left, right);
+    }
+
+    private static Node[] split(Node node, long key) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (node.key < key) {
+            Node[] parts = split(node.right, key);
+            return new Node[]{new Node(node.key, node.priority, node.left, parts[0]), parts[1]};
+        }
+        Node[] parts = split(node.left, key);
+        return new Node[]{parts[0], new Node(node.key, node.priority, parts[1], node.right)};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return new Node(left.key, left.priority, left.left, merge(left.right, right));
+        }
+        return new Node(right.key, right.priority, merge(left, right.left), right.right);
+    }
+
+    private static int priority(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private record Node(long key, int priority, Node left, Node right) {
+    }
+}
@@ -0,0 +1,225 @@
+package ru.yandex.practicum.filmorate.storage.snapshot;
+
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.IdSet;
+import ru.yandex.practicum.filmorate.storage.film.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Хранилище фильмов с чтением из неизменяемых снимков (MVCC). Каждая запись
+ * создаёт новую версию фильма и публикует новый снимок одной volatile-записью,
+ * читатели работают со снимком, взятым в начале запроса, без блокировок.
+ * Старые версии освобождает сборщик мусора, когда на снимок не остаётся ссылок.
+ */
+public class SnapshotFilmStorage implements FilmStorage {
+
+    private static final int COPY_ON_WRITE_BATCH = 16;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Snapshot current = new Snapshot(0, 0, PersistentIntMap.empty(), PersistentRanking.EMPTY, 0);
+
+    public long version() {
+        return current.version;
+    }
+
+    @Override
+    public Film create(Film film) {
+        writeLock.lock();
+        try {
+            Snapshot snapshot = current;
+            film.setId(snapshot.lastId + 1);
+            current = snapshot.put(null, film, film.getId());
+            return film;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Film update(Film film) {
+        writeLock.lock();
+        try {
+            Snapshot snapshot = current;
+            current = snapshot.put(snapshot.find(film.getId()), film, snapshot.lastId);
+            return film;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Film findById(int id) {
+        return current.find(id);
+    }
+
+    @Override
+    public Optional<Film> find(int id) {
+        return Optional.ofNullable(current.films.get(id));
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return current.films.get(id) != null;
+    }
+
+    @Override
+    public int likeCount(int id) {
+        Film film = current.films.get(id);
+        return film == null ? 0 : film.getLikes().size();
+    }
+
+    @Override
+    public List<Film> findAllById(int[] ids) {
+        Snapshot snapshot = current;
+        List<Film> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Film film = snapshot.films.get(id);
+            if (film != null) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        return current.films.values();
+    }
+
+    @Override
+    public List<Film> findPage(int afterId, int limit) {
+        Snapshot snapshot = current;
+        List<Film> page = new ArrayList<>(Math.min(limit, 1024));
+        for (int id = Math.max(afterId, 0) + 1; id <= snapshot.lastId && page.size() < limit; id++) {
+            Film film = snapshot.films.get(id);
+            if (film != null) {
+                page.add(film);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public boolean addLike(int filmId, int userId) {
+        writeLock.lock();
+        try {
+            Snapshot snapshot = current;
+            Film film = snapshot.find(filmId);
+            if (film.getLikes().contains(userId)) {
+                return false;
+            }
+            current = snapshot.put(film, film.withLikes(film.getLikes().with(userId)), snapshot.lastId);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeLike(int filmId, int userId) {
+        writeLock.lock();
+        try {
+            Snapshot snapshot = current;
+            Film film = snapshot.find(filmId);
+            if (!film.getLikes().contains(userId)) {
+                return false;
+            }
+            current = snapshot.put(film, film.withLikes(film.getLikes().without(userId)), snapshot.lastId);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Вся пачка публикуется одной новой версией. Небольшие пачки делят блоки с прежним
+     * множеством лайков, большие применяются к его полной копии.
+     */
+    @Override
+    public boolean applyLikes(int filmId, int[] likedBy, int[] unlikedBy) {
+        writeLock.lock();
+        try {
+            Snapshot snapshot = current;
+            Film film = snapshot.find(filmId);
+            IdSet likes = film.getLikes();
+            boolean changed = false;
+            if (likedBy.length + unlikedBy.length > COPY_ON_WRITE_BATCH) {
+                likes = new IdSet(likes);
+                for (int userId : likedBy) {
+                    changed |= likes.add(userId);
+                }
+                for (int userId : unlikedBy) {
+                    changed |= likes.remove(userId);
+                }
+            } else {
+                for (int userId : likedBy) {
+                    IdSet next = likes.with(userId);
+                    changed |= next != likes;
+                    likes = next;
+                }
+                for (int userId : unlikedBy) {
+                    IdSet next = likes.without(userId);
+                    changed |= next != likes;
+                    likes = next;
+                }
+            }
+            if (!changed) {
+                return false;
+            }
+            current = snapshot.put(film, film.withLikes(likes), snapshot.lastId);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Film> findPopular(int count) {
+        Snapshot snapshot = current;
+        long[] keys = new long[Math.max(0, Math.min(count, snapshot.films.size()))];
+        int found = snapshot.ranking.top(keys);
+        List<Film> films = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            films.add(snapshot.films.get(FilmPopularityIndex.filmId(keys[i])));
+        }
+        return films;
+    }
+
+    @Override
+    public long countLikes() {
+        return current.likes;
+    }
+
+    private record Snapshot(long version, int lastId, PersistentIntMap<Film> films, PersistentRanking ranking,
+                            long likes) {
+
+        Film find(int id) {
+            Film film = films.get(id);
+            if (film == null) {
+                throw new NotFoundException("Фильм с id=" + id + " не найден");
+            }
+            return film;
+        }
+
+        Snapshot put(Film previous, Film film, int lastId) {
+            PersistentRanking newRanking = ranking;
+            int likes = film.getLikes().size();
+            int previousLikes = previous == null ? 0 : previous.getLikes().size();
+            if (previous == null || previousLikes != likes) {
+                if (previous != null) {
+                    newRanking = newRanking.without(FilmPopularityIndex.key(previousLikes, film.getId()));
+                }
+                newRanking = newRanking.with(FilmPopularityIndex.key(likes, film.getId()));
+            }
+            return new Snapshot(version + 1, lastId, films.with(film.getId(), film), newRanking,
+                    this.likes + likes - previousLikes);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package ru.yandex.practicum.filmorate.storage.snapshot;
+
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.FriendDegrees;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Хранилище пользователей с чтением из неизменяемых снимков, как {@link SnapshotFilmStorage}.
+ * Дружба меняет обоих пользователей в одном снимке, поэтому читатель никогда
+ * не увидит связь только с одной стороны. Гистограмма размеров списков друзей
+ * меняется под той же блокировкой записи, но в снимок не входит.
+ */
+public class SnapshotUserStorage implements UserStorage {
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final FriendDegrees degrees = new FriendDegrees();
+    private volatile Snapshot current = new Snapshot(0, 0, PersistentIntMap.empty(), 0);
+
+    public long version() {
+        return current.version;
+    }
+
+    @Override
+    public User create(User user) {
+        writeLock.lock();
+        try {
+            Snapshot snapshot = current;
+            user.setId(snapshot.lastId + 1);
+            current = new Snapshot(snapshot.version + 1, user.getId(), snapshot.users.with(user.getId(), user),
+                    snapshot.friendLinks + user.getFriends().size());
+            degrees.moved(0, user.getFriends().size());
+            return user;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public User update(User user) {
+        writeLock.lock();
+        try {
+            Snapshot snapshot = current;
+            User previous = snapshot.find(user.getId());
+            current = new Snapshot(snapshot.version + 1, snapshot.lastId, snapshot.users.with(user.getId(), user),
+                    snapshot.friendLinks + user.getFriends().size() - previous.getFriends().size());
+            degrees.moved(previous.getFriends().size(), user.getFriends().size());
+            return user;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public User findById(int id) {
+        return current.find(id);
+    }
+
+    @Override
+    public Optional<User> find(int id) {
+        return Optional.ofNullable(current.users.get(id));
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return current.users.get(id) != null;
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return current.users.values();
+    }
+
+    @Override
+    public List<User> findPage(int afterId, int limit) {
+        Snapshot snapshot = current;
+        List<User> page = new ArrayList<>(Math.min(limit, 1024));
+        for (int id = Math.max(afterId, 0) + 1; id <= snapshot.lastId && page.size() < limit; id++) {
+            User user = snapshot.users.get(id);
+            if (user != null) {
+                page.add(user);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<User> findAllById(int[] ids) {
+        Snapshot snapshot = current;
+        List<User> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            User user = snapshot.users.get(id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean addFriend(int userId, int friendId) {
+        writeLock.lock();
+        try {
+            Snapshot snapshot = current;
+            User user = snapshot.find(userId);
+            User friend = snapshot.find(friendId);
+            User updatedUser = user.withFriends(user.getFriends().with(friendId));
+            User updatedFriend = friend.withFriends(friend.getFriends().with(userId));
+            return publish(snapshot, user, updatedUser, friend, updatedFriend);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeFriend(int userId, int friendId) {
+        writeLock.lock();
+        try {
+            Snapshot snapshot = current;
+            User user = snapshot.find(userId);
+            User friend = snapshot.find(friendId);
+            User updatedUser = user.withFriends(user.getFriends().without(friendId));
+            User updatedFriend = friend.withFriends(friend.getFriends().without(userId));
+            return publish(snapshot, user, updatedUser, friend, updatedFriend);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private boolean publish(Snapshot snapshot, User user, User updatedUser, User friend, User updatedFriend) {
+        boolean userChanged = updatedUser.getFriends() != user.getFriends();
+        boolean friendChanged = updatedFriend.getFriends() != friend.getFriends();
+        if (!userChanged && !friendChanged) {
+            return false;
+        }
+        PersistentIntMap<User> users = snapshot.users;
+        if (userChanged) {
+            users = users.with(user.getId(), updatedUser);
+        }
+        if (friendChanged) {
+            users = users.with(friend.getId(), updatedFriend);
+        }
+        long friendLinks = snapshot.friendLinks
+                + updatedUser.getFriends().size() - user.getFriends().size()
+                + updatedFriend.getFriends().size() - friend.getFriends().size();
+        current = new Snapshot(snapshot.version + 1, snapshot.lastId, users, friendLinks);
+        degrees.moved(user.getFriends().size(), updatedUser.getFriends().size());
+        degrees.moved(friend.getFriends().size(), updatedFriend.getFriends().size());
+        return true;
+    }
+
+    @Override
+    public long countFriendLinks() {
+        return current.friendLinks;
+    }
+
+    @Override
+    public int maxFriends() {
+        return degrees.max();
+    }
+
+    private record Snapshot(long version, int lastId, PersistentIntMap<User> users, long friendLinks) {
+
+        User find(int id) {
+            User user = users.get(id);
+            if (user == null) {
+                throw new NotFoundException("Пользователь с id=" + id + " не найден");
+            }
+            return user;
+        }
+    }
+}
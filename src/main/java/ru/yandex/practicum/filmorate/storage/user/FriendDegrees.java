@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import ru.yandex.practicum.filmorate.model.IdSet;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма размеров списков друзей: сколько пользователей имеют ровно n друзей.
+ * Хранилища сообщают о каждом изменении размера списка, поэтому наибольший список
+ * известен без обхода пользователей. Небольшие размеры считаются в плотном массиве,
+ * редкие большие — в упорядоченной карте. Пустые списки не учитываются.
+ */
+public class FriendDegrees {
+
+    private static final int DENSE_LIMIT = 4096;
+
+    private final AtomicLongArray dense = new AtomicLongArray(DENSE_LIMIT);
+    private final ConcurrentSkipListMap<Integer, Long> sparse = new ConcurrentSkipListMap<>();
+
+    /**
+     * Переносит одного пользователя из корзины before в корзину after.
+     */
+    public void moved(int before, int after) {
+        if (before == after) {
+            return;
+        }
+        add(after, 1);
+        add(before, -1);
+    }
+
+    /**
+     * Добавляет friendId в список друзей и учитывает его новый размер.
+     *
+     * @return true, если список изменился
+     */
+    public boolean link(IdSet friends, int friendId) {
+        int size = friends.addAndGetSize(friendId);
+        if (size < 0) {
+            return false;
+        }
+        moved(size - 1, size);
+        return true;
+    }
+
+    /**
+     * Удаляет friendId из списка друзей и учитывает его новый размер.
+     *
+     * @return true, если список изменился
+     */
+    public boolean unlink(IdSet friends, int friendId) {
+        int size = friends.removeAndGetSize(friendId);
+        if (size < 0) {
+            return false;
+        }
+        moved(size + 1, size);
+        return true;
+    }
+
+    /**
+     * Размер наибольшего списка друзей или 0, если друзей нет ни у кого.
+     */
+    public int max() {
+        for (Map.Entry<Integer, Long> entry : sparse.descendingMap().entrySet()) {
+            if (entry.getValue() > 0) {
+                return entry.getKey();
+            }
+        }
+        for (int degree = DENSE_LIMIT - 1; degree > 0; degree--) {
+            if (dense.get(degree) > 0) {
+                return degree;
+            }
+        }
+        return 0;
+    }
+
+    private void add(int degree, long delta) {
+        if (degree <= 0) {
+            return;
+        }
+        if (degree < DENSE_LIMIT) {
+            dense.addAndGet(degree, delta);
+        } else {
+            sparse.merge(degree, delta, (current, change) -> current + change == 0 ? null : current + change);
+        }
+    }
+}
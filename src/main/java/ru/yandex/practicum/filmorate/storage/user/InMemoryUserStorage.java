@@ -4,43 +4,149 @@ import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 public class InMemoryUserStorage implements UserStorage {
 
-    private final Map<Integer, User> users = new HashMap<>();
-    private int nextId = 1;
+    private final Map<Integer, User> users = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final LongAdder friendLinks = new LongAdder();
+    private final FriendDegrees degrees;
+
+    public InMemoryUserStorage() {
+        this(new FriendDegrees());
+    }
+
+    /**
+     * Хранилище, которое учитывает размеры списков друзей в общей гистограмме degrees.
+     */
+    public InMemoryUserStorage(FriendDegrees degrees) {
+        this.degrees = degrees;
+    }
 
     @Override
     public User create(User user) {
-        user.setId(nextId++);
+        user.setId(nextId.incrementAndGet());
         users.put(user.getId(), user);
+        friendLinks.add(user.getFriends().size());
+        degrees.moved(0, user.getFriends().size());
         return user;
     }
 
+    /**
+     * Выделяет id для пользователя, который затем будет добавлен через {@link #restore}.
+     */
+    public int reserveId() {
+        return nextId.incrementAndGet();
+    }
+
+    public void restore(User user) {
+        User previous = users.put(user.getId(), user);
+        nextId.accumulateAndGet(user.getId(), Math::max);
+        int before = previous == null ? 0 : previous.getFriends().size();
+        friendLinks.add(user.getFriends().size() - before);
+        degrees.moved(before, user.getFriends().size());
+    }
+
     @Override
     public User update(User user) {
-        if (!users.containsKey(user.getId())) {
+        User previous = users.replace(user.getId(), user);
+        if (previous == null) {
             throw new NotFoundException("Пользователь с id=" + user.getId() + " не найден");
         }
-        users.put(user.getId(), user);
+        friendLinks.add(user.getFriends().size() - previous.getFriends().size());
+        degrees.moved(previous.getFriends().size(), user.getFriends().size());
         return user;
     }
 
     @Override
     public User findById(int id) {
-        User user = users.get(id);
+        User user = findOrNull(id);
         if (user == null) {
             throw new NotFoundException("Пользователь с id=" + id + " не найден");
         }
         return user;
     }
 
+    public User findOrNull(int id) {
+        return users.get(id);
+    }
+
+    @Override
+    public Optional<User> find(int id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return users.containsKey(id);
+    }
+
     @Override
     public Collection<User> findAll() {
         return users.values();
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<User> findPage(int afterId, int limit) {
+        List<User> page = new ArrayList<>(Math.min(limit, 1024));
+        int lastId = nextId.get();
+        for (int id = Math.max(afterId, 0) + 1; id <= lastId && page.size() < limit; id++) {
+            User user = users.get(id);
+            if (user != null) {
+                page.add(user);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public boolean addFriend(int userId, int friendId) {
+        User user = findById(userId);
+        User friend = findById(friendId);
+        int added = (degrees.link(user.getFriends(), friendId) ? 1 : 0)
+                + (degrees.link(friend.getFriends(), userId) ? 1 : 0);
+        friendLinks.add(added);
+        return added > 0;
+    }
+
+    @Override
+    public boolean removeFriend(int userId, int friendId) {
+        User user = findById(userId);
+        User friend = findById(friendId);
+        int removed = (degrees.unlink(user.getFriends(), friendId) ? 1 : 0)
+                + (degrees.unlink(friend.getFriends(), userId) ? 1 : 0);
+        friendLinks.add(-removed);
+        return removed > 0;
+    }
+
+    @Override
+    public List<User> findAllById(int[] ids) {
+        List<User> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            User user = users.get(id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long countFriendLinks() {
+        return friendLinks.sum();
+    }
+
+    @Override
+    public int maxFriends() {
+        return degrees.max();
+    }
+}
@@ -3,6 +3,8 @@ package ru.yandex.practicum.filmorate.storage.user;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface UserStorage {
 
@@ -12,5 +14,32 @@ public interface UserStorage {
 
     User findById(int id);
 
+    Optional<User> find(int id);
+
+    boolean exists(int id);
+
     Collection<User> findAll();
-}
\ No newline at end of file
+
+    List<User> findPage(int afterId, int limit);
+
+    /**
+     * Пользователи в порядке ids; отсутствующие пропускаются.
+     */
+    List<User> findAllById(int[] ids);
+
+    boolean addFriend(int userId, int friendId);
+
+    boolean removeFriend(int userId, int friendId);
+
+    /**
+     * Сумма размеров всех списков друзей. Поддерживается при каждом изменении дружбы,
+     * без обхода пользователей.
+     */
+    long countFriendLinks();
+
+    /**
+     * Размер наибольшего списка друзей. Берётся из гистограммы размеров,
+     * которая поддерживается при каждом изменении дружбы.
+     */
+    int maxFriends();
+}
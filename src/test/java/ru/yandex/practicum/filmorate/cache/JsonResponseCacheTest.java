@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldServeCachedBytesUntilTagChanges() {
+        JsonResponseCache cache = new JsonResponseCache(objectMapper, 1 << 20, 4);
+        AtomicInteger loads = new AtomicInteger();
+
+        byte[] first = cache.get("film:1", "v1", () -> List.of(loads.incrementAndGet()));
+        byte[] second = cache.get("film:1", "v1", () -> List.of(loads.incrementAndGet()));
+        byte[] changed = cache.get("film:1", "v2", () -> List.of(loads.incrementAndGet()));
+
+        assertSame(first, second);
+        assertEquals("[1]", new String(first, StandardCharsets.UTF_8));
+        assertEquals("[2]", new String(changed, StandardCharsets.UTF_8));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntriesWithinBudget() {
+        JsonResponseCache cache = new JsonResponseCache(objectMapper, 4_096, 1);
+        String payload = "x".repeat(500);
+        for (int i = 0; i < 20; i++) {
+            cache.get("film:" + i, "v", () -> payload);
+        }
+
+        assertTrue(cache.sizeInBytes() <= 4_096);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("film:19", "v", () -> "reloaded" + loads.incrementAndGet());
+        cache.get("film:0", "v", () -> "reloaded" + loads.incrementAndGet());
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,204 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.cache.JsonResponseCache;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.likes.LikeIngestion;
+import ru.yandex.practicum.filmorate.likes.LikeIngestionProperties;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.popular.PopularStreamProperties;
+import ru.yandex.practicum.filmorate.popular.PopularityStream;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalGetTest {
+
+    private FilmController filmController;
+    private UserController userController;
+    private PopularityStream popularityStream;
+
+    @BeforeEach
+    void setUp() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        FilmService filmService = new FilmService(new InMemoryFilmStorage(), userStorage, validator);
+        UserService userService = new UserService(userStorage, validator);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        popularityStream = new PopularityStream(filmService, objectMapper, new PopularStreamProperties());
+        filmController = new FilmController(filmService, objectMapper, new JsonResponseCache(objectMapper, 1 << 20, 4),
+                new LikeIngestion(filmService, new LikeIngestionProperties()), popularityStream);
+        userController = new UserController(userService, filmService, objectMapper);
+        userController.createUser(user());
+        userController.createUser(user());
+        filmController.createFilm(film());
+    }
+
+    @AfterEach
+    void tearDown() {
+        popularityStream.close();
+    }
+
+    @Test
+    void shouldAnswerNotModifiedUntilFilmChanges() {
+        Exchange first = new Exchange(null);
+        assertNotNull(filmController.getFilmById(1, first.request));
+        String etag = first.response.getHeader("ETag");
+        assertNotNull(etag);
+
+        Exchange repeated = new Exchange(etag);
+        assertNull(filmController.getFilmById(1, repeated.request));
+        assertEquals(304, repeated.response.getStatus());
+
+        filmController.addLike(1, 1);
+        Exchange afterLike = new Exchange(etag);
+        assertNotNull(filmController.getFilmById(1, afterLike.request));
+        assertNotEquals(etag, afterLike.response.getHeader("ETag"));
+    }
+
+    @Test
+    void shouldChangePopularTagOnAnyLike() {
+        Exchange first = new Exchange(null);
+        filmController.getPopularFilms(10, null, null, null, first.request);
+        String etag = first.response.getHeader("ETag");
+
+        Exchange repeated = new Exchange(etag);
+        assertNull(filmController.getPopularFilms(10, null, null, null, repeated.request));
+
+        filmController.addLike(1, 2);
+        assertNotNull(filmController.getPopularFilms(10, null, null, null, new Exchange(etag).request));
+    }
+
+    @Test
+    void shouldChangeFriendsTagWhenFriendOrFriendshipChanges() {
+        Exchange first = new Exchange(null);
+        userController.getFriends(1, first.request);
+        String etag = first.response.getHeader("ETag");
+
+        userController.addFriend(1, 2);
+        Exchange afterFriendship = new Exchange(etag);
+        assertNotNull(userController.getFriends(1, afterFriendship.request));
+        etag = afterFriendship.response.getHeader("ETag");
+        assertNull(userController.getFriends(1, new Exchange(etag).request));
+
+        User renamed = user();
+        renamed.setId(2);
+        renamed.setName("Renamed");
+        userController.updateUser(renamed);
+        assertNotNull(userController.getFriends(1, new Exchange(etag).request));
+    }
+
+    @Test
+    void shouldKeepUserTagWhenOnlyFriendChanges() {
+        userController.addFriend(1, 2);
+        Exchange user = new Exchange(null);
+        userController.getUserById(1, user.request);
+        String userTag = user.response.getHeader("ETag");
+        Exchange friends = new Exchange(null);
+        userController.getFriends(1, friends.request);
+        String friendsTag = friends.response.getHeader("ETag");
+
+        User renamed = user();
+        renamed.setId(2);
+        renamed.setName("Renamed");
+        renamed.setFriends(List.of(1));
+        userController.updateUser(renamed);
+
+        assertNull(userController.getUserById(1, new Exchange(userTag).request));
+        assertNotNull(userController.getFriends(1, new Exchange(friendsTag).request));
+    }
+
+    @Test
+    void shouldChangeFriendsTagWhenFriendMakesNewFriend() {
+        userController.createUser(user());
+        userController.addFriend(1, 2);
+        Exchange first = new Exchange(null);
+        userController.getFriends(1, first.request);
+        String etag = first.response.getHeader("ETag");
+        assertNull(userController.getFriends(1, new Exchange(etag).request));
+
+        userController.addFriend(2, 3);
+        assertNotNull(userController.getFriends(1, new Exchange(etag).request));
+    }
+
+    @Test
+    void shouldAnswerNotFoundForUnknownIdWhateverTheTag() {
+        Exchange first = new Exchange(null);
+        userController.getUserById(1, first.request);
+        String etag = first.response.getHeader("ETag").replace("-1-", "-99-");
+
+        assertThrows(NotFoundException.class, () -> userController.getUserById(99, new Exchange(etag).request));
+        assertThrows(NotFoundException.class, () -> filmController.getFilmById(99, new Exchange(etag).request));
+    }
+
+    @Test
+    void shouldApplyPagingToStreamedLists() throws IOException {
+        filmController.createFilm(film());
+        filmController.createFilm(film());
+        userController.createUser(user());
+
+        assertEquals(2, lines(filmController.streamFilms(1, 5).getBody()));
+        assertEquals(1, lines(filmController.streamFilms(null, 1).getBody()));
+        assertEquals(3, lines(filmController.streamFilms(null, null).getBody()));
+        assertEquals(1, lines(userController.streamUsers(2, null).getBody()));
+        assertThrows(ValidationException.class, () -> filmController.streamFilms(0, 0));
+    }
+
+    private static long lines(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8).lines().count();
+    }
+
+    private Film film() {
+        Film film = new Film();
+        film.setName("Matrix");
+        film.setDescription("Good film");
+        film.setReleaseDate(LocalDate.of(1999, 3, 31));
+        film.setDuration(120);
+        return film;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setName("User");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+
+    private static final class Exchange {
+
+        private final MockHttpServletResponse response = new MockHttpServletResponse();
+        private final ServletWebRequest request;
+
+        Exchange(String ifNoneMatch) {
+            MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/");
+            if (ifNoneMatch != null) {
+                servletRequest.addHeader("If-None-Match", ifNoneMatch);
+            }
+            request = new ServletWebRequest(servletRequest, response);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package ru.yandex.practicum.filmorate.likes;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LikeIngestionTest {
+
+    private static final int USERS = 50;
+
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private FilmService filmService;
+    private LikeIngestion ingestion;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        userStorage = new InMemoryUserStorage();
+        filmService = new FilmService(filmStorage, userStorage, Validation.buildDefaultValidatorFactory().getValidator());
+        for (int i = 0; i < USERS; i++) {
+            userStorage.create(user());
+        }
+        filmService.createFilm(film());
+        filmService.createFilm(film());
+        LikeIngestionProperties properties = new LikeIngestionProperties();
+        properties.setMode(LikeIngestionMode.ASYNC);
+        properties.setReadYourWrites(true);
+        properties.setQueueCapacity(64);
+        ingestion = new LikeIngestion(filmService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ingestion.close();
+    }
+
+    @Test
+    void shouldSeeOwnLikesImmediately() {
+        ingestion.addLike(1, 1);
+        assertEquals(Set.of(1), filmStorage.findById(1).getLikes());
+        assertEquals(1, filmService.getPopularFilms(1).get(0).getId());
+
+        ingestion.addLike(2, 2);
+        ingestion.removeLike(2, 2);
+        ingestion.addLike(2, 3);
+        assertEquals(Set.of(3), filmStorage.findById(2).getLikes());
+        assertThrows(NotFoundException.class, () -> ingestion.addLike(3, 1));
+        assertThrows(NotFoundException.class, () -> ingestion.addLike(1, USERS + 1));
+    }
+
+    @Test
+    void shouldCancelLikeAndUnlikeWithinOneBatch() throws Exception {
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> applied = new CopyOnWriteArrayList<>();
+        FilmService recording = new FilmService(filmStorage, userStorage,
+                Validation.buildDefaultValidatorFactory().getValidator()) {
+            @Override
+            public void applyLikes(int filmId, int[] likedBy, int[] unlikedBy) {
+                applying.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                applied.add(filmId + ":" + Arrays.toString(likedBy) + ":" + Arrays.toString(unlikedBy));
+                super.applyLikes(filmId, likedBy, unlikedBy);
+            }
+        };
+        LikeIngestionProperties properties = new LikeIngestionProperties();
+        properties.setMode(LikeIngestionMode.ASYNC);
+        properties.setQueueCapacity(64);
+        LikeIngestion fireAndForget = new LikeIngestion(recording, properties);
+
+        fireAndForget.addLike(1, 1);
+        assertTrue(applying.await(5, TimeUnit.SECONDS));
+        fireAndForget.addLike(2, 2);
+        fireAndForget.removeLike(2, 2);
+        fireAndForget.addLike(2, 3);
+        fireAndForget.removeLike(2, 3);
+        fireAndForget.addLike(2, 4);
+        release.countDown();
+        fireAndForget.close();
+
+        assertEquals(List.of("1:[1]:[]", "2:[4]:[2, 3]"), applied);
+        assertEquals(Set.of(4), filmStorage.findById(2).getLikes());
+        assertThrows(IllegalStateException.class, () -> fireAndForget.addLike(2, 5));
+    }
+
+    @Test
+    void shouldApplyConcurrentEventsFromManyThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int userId = 1; userId <= USERS; userId++) {
+                int user = userId;
+                futures.add(executor.submit(() -> {
+                    ingestion.addLike(1, user);
+                    ingestion.addLike(2, user);
+                    if (user % 2 == 0) {
+                        ingestion.removeLike(2, user);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(USERS, filmStorage.findById(1).getLikes().size());
+        assertEquals(USERS / 2, filmStorage.findById(2).getLikes().size());
+        assertEquals(List.of(1, 2), filmService.getPopularFilms(2).stream().map(Film::getId).toList());
+    }
+
+    private Film film() {
+        Film film = new Film();
+        film.setName("Matrix");
+        film.setDescription("Good film");
+        film.setReleaseDate(LocalDate.of(1999, 3, 31));
+        film.setDuration(120);
+        return film;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setName("User");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
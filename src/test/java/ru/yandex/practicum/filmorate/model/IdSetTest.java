@@ -0,0 +1,204 @@
+package ru.yandex.practicum.filmorate.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdSetTest {
+
+    @Test
+    void shouldBehaveLikeHashSetAcrossRepresentations() {
+        IdSet ids = new IdSet();
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            int id = random.nextInt(300_000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(id), ids.remove(id));
+            } else {
+                assertEquals(expected.add(id), ids.add(id));
+            }
+        }
+
+        assertEquals(expected.size(), ids.size());
+        assertEquals(expected, ids);
+        for (int i = 0; i < 300_000; i++) {
+            assertEquals(expected.contains(i), ids.contains(i));
+        }
+    }
+
+    @Test
+    void shouldIterateInAscendingOrder() {
+        IdSet ids = new IdSet(List.of(70_000, 3, 1, 65_536, 2));
+
+        assertArrayEquals(new int[]{1, 2, 3, 65_536, 70_000}, ids.toIntArray());
+        assertEquals(List.of(1, 2, 3, 65_536, 70_000), new ArrayList<>(ids));
+    }
+
+    @Test
+    void shouldVisitEveryIdChunkByChunk() {
+        IdSet ids = new IdSet();
+        for (int i = 0; i < 300_000; i += 3) {
+            ids.add(i);
+        }
+        ids.add(Integer.MAX_VALUE);
+        List<Integer> visited = new ArrayList<>();
+
+        ids.forEachId(visited::add);
+
+        assertEquals(new ArrayList<>(ids), visited);
+    }
+
+    @Test
+    void shouldSampleDistinctMembersFromEveryChunk() {
+        IdSet ids = new IdSet();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(i);
+        }
+        for (int i = 0; i < 100; i++) {
+            ids.add(200_000 + i * 7);
+        }
+        Set<Integer> seenChunks = new HashSet<>();
+
+        for (int round = 0; round < 50; round++) {
+            int[] sample = ids.sample(64);
+            assertEquals(64, sample.length);
+            for (int i = 0; i < sample.length; i++) {
+                assertTrue(ids.contains(sample[i]));
+                assertTrue(i == 0 || sample[i - 1] < sample[i]);
+                seenChunks.add(sample[i] >>> 16);
+            }
+        }
+
+        assertEquals(Set.of(0, 3), seenChunks);
+        assertEquals(9_000, ids.sample(9_000).length);
+        assertArrayEquals(ids.toIntArray(), ids.sample(20_000));
+    }
+
+    @Test
+    void shouldSwitchBackToArrayWhenChunkShrinks() {
+        IdSet ids = new IdSet();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(i);
+        }
+        long bitmapBytes = ids.sizeInBytes();
+        for (int i = 0; i < 9_990; i++) {
+            ids.remove(i);
+        }
+
+        assertEquals(10, ids.size());
+        assertTrue(ids.sizeInBytes() < bitmapBytes);
+        assertTrue(ids.contains(9_999));
+        assertFalse(ids.contains(0));
+    }
+
+    @Test
+    void shouldUseFarLessMemoryThanBoxedSet() {
+        IdSet ids = new IdSet();
+        for (int i = 1; i <= 1_000_000; i++) {
+            ids.add(i);
+        }
+
+        assertTrue(ids.sizeInBytes() < 1_000_000 / 4, "плотный миллион лайков должен занимать меньше 250 КБ");
+    }
+
+    @Test
+    void shouldIntersectMixedRepresentations() {
+        Random random = new Random(7);
+        IdSet sparse = new IdSet();
+        IdSet dense = new IdSet();
+        Set<Integer> expectedSparse = new HashSet<>();
+        Set<Integer> expectedDense = new HashSet<>();
+        for (int i = 0; i < 3_000; i++) {
+            int id = random.nextInt(200_000);
+            sparse.add(id);
+            expectedSparse.add(id);
+        }
+        for (int i = 0; i < 150_000; i++) {
+            int id = random.nextInt(200_000);
+            dense.add(id);
+            expectedDense.add(id);
+        }
+        Set<Integer> expected = new HashSet<>(expectedSparse);
+        expected.retainAll(expectedDense);
+
+        assertEquals(expected, new IdSet(toList(sparse.intersect(dense))));
+        assertEquals(expected, new IdSet(toList(dense.intersect(sparse))));
+        assertEquals(expected.size(), sparse.intersectionSize(dense));
+        assertEquals(expectedDense.size(), dense.intersectionSize(dense));
+        assertArrayEquals(new int[0], sparse.intersect(new IdSet()));
+    }
+
+    @Test
+    void shouldLeaveOriginalUntouchedWhenCopyingOnWrite() {
+        IdSet version = new IdSet();
+        Set<Integer> expected = new HashSet<>();
+        List<IdSet> versions = new ArrayList<>();
+        List<Set<Integer>> snapshots = new ArrayList<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(140_000);
+            if (random.nextInt(5) == 0) {
+                version = version.without(id);
+                expected.remove(id);
+            } else {
+                version = version.with(id);
+                expected.add(id);
+            }
+            if (i % 1_000 == 0) {
+                versions.add(version);
+                snapshots.add(new HashSet<>(expected));
+            }
+        }
+
+        assertEquals(expected, version);
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(snapshots.get(i), versions.get(i));
+            assertEquals(snapshots.get(i).size(), versions.get(i).size());
+        }
+    }
+
+    @Test
+    void shouldNotLoseConcurrentAdds() throws Exception {
+        IdSet ids = new IdSet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(i * 8 + thread);
+                        ids.contains(i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(160_000, ids.size());
+    }
+
+    private List<Integer> toList(int[] ids) {
+        List<Integer> result = new ArrayList<>();
+        for (int id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+}
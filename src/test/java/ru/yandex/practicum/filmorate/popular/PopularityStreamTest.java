@@ -0,0 +1,288 @@
+package ru.yandex.practicum.filmorate.popular;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.OverloadedException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopularityStreamTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Queue<Runnable> senders = new ArrayDeque<>();
+    private FilmService filmService;
+    private PopularityStream stream;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        filmService = new FilmService(new InMemoryFilmStorage(), userStorage,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        for (int i = 0; i < 3; i++) {
+            userStorage.create(user());
+            filmService.createFilm(film("Film " + i));
+        }
+        PopularStreamProperties properties = new PopularStreamProperties();
+        properties.setTick(Duration.ofHours(1));
+        properties.setCount(2);
+        properties.setMaxSubscribers(2);
+        stream = new PopularityStream(filmService, objectMapper, properties, senders::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.close();
+    }
+
+    @Test
+    void shouldSendSnapshotThenOnlyChangedPositions() throws IOException {
+        RecordingSink sink = new RecordingSink();
+        stream.subscribe(sink);
+        send();
+
+        filmService.addLike(3, 1);
+        stream.tick();
+        send();
+        filmService.addLike(3, 2);
+        stream.tick();
+        send();
+
+        assertEquals(List.of(PopularityStream.SNAPSHOT, PopularityStream.DELTA, PopularityStream.DELTA), sink.events);
+        JsonNode snapshot = objectMapper.readTree(sink.data.get(0));
+        assertEquals(2, snapshot.get("films").size());
+        assertEquals(1, snapshot.get("films").get(0).get("id").asInt());
+
+        JsonNode delta = objectMapper.readTree(sink.data.get(1));
+        assertEquals(2, delta.get("version").asInt());
+        assertEquals(2, delta.get("changes").size());
+        assertEquals(3, delta.get("changes").get(0).get("id").asInt());
+        assertEquals(1, delta.get("changes").get(0).get("likes").asInt());
+
+        JsonNode second = objectMapper.readTree(sink.data.get(2));
+        assertEquals(1, second.get("changes").size());
+        assertEquals(0, second.get("changes").get(0).get("rank").asInt());
+        assertEquals(2, second.get("changes").get(0).get("likes").asInt());
+    }
+
+    @Test
+    void shouldNotSendWhenRankingIsUnchanged() {
+        RecordingSink sink = new RecordingSink();
+        stream.subscribe(sink);
+        send();
+
+        stream.tick();
+        filmService.addLike(3, 1);
+        filmService.removeLike(3, 1);
+        stream.tick();
+        send();
+
+        assertEquals(List.of(PopularityStream.SNAPSHOT), sink.events);
+    }
+
+    @Test
+    void shouldSendLatestSnapshotToSlowSubscriber() throws IOException {
+        RecordingSink fast = new RecordingSink();
+        RecordingSink slow = new RecordingSink();
+        stream.subscribe(fast);
+        send();
+        stream.subscribe(slow);
+        Runnable slowSend = senders.poll();
+
+        filmService.addLike(3, 1);
+        stream.tick();
+        send();
+        filmService.addLike(2, 1);
+        filmService.addLike(2, 2);
+        stream.tick();
+        send();
+        slowSend.run();
+
+        assertEquals(List.of(PopularityStream.SNAPSHOT, PopularityStream.DELTA, PopularityStream.DELTA), fast.events);
+        assertEquals(List.of(PopularityStream.SNAPSHOT), slow.events);
+        JsonNode snapshot = objectMapper.readTree(slow.data.get(0));
+        assertEquals(3, snapshot.get("version").asInt());
+        assertEquals(2, snapshot.get("films").get(0).get("id").asInt());
+    }
+
+    @Test
+    void shouldDropFailedSubscriberAndLimitSubscribers() {
+        stream.subscribe(new FailingSink());
+        send();
+        assertEquals(0, stream.subscriberCount());
+
+        stream.subscribe(new RecordingSink());
+        stream.subscribe(new RecordingSink());
+        assertThrows(OverloadedException.class, () -> stream.subscribe(new RecordingSink()));
+    }
+
+    @Test
+    void shouldNotAdmitMoreSubscribersThanLimitUnderConcurrency() throws Exception {
+        PopularStreamProperties properties = new PopularStreamProperties();
+        properties.setTick(Duration.ofHours(1));
+        properties.setMaxSubscribers(2);
+        PopularityStream direct = new PopularityStream(filmService, objectMapper, properties, Runnable::run);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        direct.subscribe(new RecordingSink());
+                        return true;
+                    } catch (OverloadedException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int admitted = 0;
+            for (Future<Boolean> attempt : attempts) {
+                admitted += attempt.get() ? 1 : 0;
+            }
+
+            assertEquals(2, admitted);
+            assertEquals(2, direct.subscriberCount());
+        } finally {
+            executor.shutdownNow();
+            direct.close();
+        }
+        assertEquals(0, direct.subscriberCount());
+        assertThrows(IllegalStateException.class, () -> direct.subscribe(new RecordingSink()));
+    }
+
+    @Test
+    void shouldEvictStalledSubscriberAndKeepServingOthers() throws Exception {
+        PopularStreamProperties properties = new PopularStreamProperties();
+        properties.setTick(Duration.ofHours(1));
+        properties.setSendTimeout(Duration.ofMillis(50));
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        PopularityStream single = new PopularityStream(filmService, objectMapper, properties, pool);
+        try {
+            StalledSink stalled = new StalledSink();
+            single.subscribe(stalled);
+            assertTrue(stalled.entered.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+
+            single.tick();
+
+            assertTrue(stalled.interrupted.await(5, TimeUnit.SECONDS));
+            assertTrue(stalled.closed.await(5, TimeUnit.SECONDS));
+            assertEquals(0, single.subscriberCount());
+            CountDownLatch delivered = new CountDownLatch(1);
+            single.subscribe(new PopularityStream.Sink() {
+                @Override
+                public void send(String event, long version, String data) {
+                    delivered.countDown();
+                }
+
+                @Override
+                public void close() {
+                }
+            });
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        } finally {
+            single.close();
+            pool.shutdownNow();
+        }
+    }
+
+    private void send() {
+        Runnable task;
+        while ((task = senders.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+
+    private static class RecordingSink implements PopularityStream.Sink {
+
+        private final List<String> events = new ArrayList<>();
+        private final List<String> data = new ArrayList<>();
+
+        @Override
+        public void send(String event, long version, String data) {
+            events.add(event);
+            this.data.add(data);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class StalledSink implements PopularityStream.Sink {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void send(String event, long version, String data) throws IOException {
+            entered.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new InterruptedIOException();
+            }
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+
+    private static class FailingSink implements PopularityStream.Sink {
+
+        @Override
+        public void send(String event, long version, String data) throws IOException {
+            throw new IOException("Broken pipe");
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchOperationsTest {
+
+    private ValidatorFactory factory;
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private FilmService filmService;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        filmStorage = new InMemoryFilmStorage();
+        userStorage = new InMemoryUserStorage();
+        filmService = new FilmService(filmStorage, userStorage, factory.getValidator());
+        userService = new UserService(userStorage, factory.getValidator());
+    }
+
+    @AfterEach
+    void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    void shouldCreateValidFilmsAndReportInvalidOnes() {
+        Film blankName = film();
+        blankName.setName(" ");
+        Film tooOld = film();
+        tooOld.setReleaseDate(LocalDate.of(1890, 1, 1));
+
+        List<BatchItemResult> results = filmService.createFilms(List.of(film(), blankName, tooOld, film()));
+
+        assertEquals(1, results.get(0).getId());
+        assertNull(results.get(0).getError());
+        assertNotNull(results.get(1).getError());
+        assertNotNull(results.get(2).getError());
+        assertEquals(2, results.get(3).getId());
+        assertEquals(2, filmStorage.findAll().size());
+    }
+
+    @Test
+    void shouldApplyLikesAndFriendshipsPerItem() {
+        userService.createUsers(List.of(user(), user()));
+        filmService.createFilms(List.of(film()));
+
+        List<BatchItemResult> likes = filmService.addLikes(List.of(like(1, 1), like(1, 2), like(1, 99), like(7, 1)));
+        List<BatchItemResult> friendships = userService.addFriends(List.of(friendship(1, 2), friendship(1, 42)));
+
+        assertNull(likes.get(0).getError());
+        assertNull(likes.get(1).getError());
+        assertEquals("Пользователь с id=99 не найден", likes.get(2).getError());
+        assertEquals("Фильм с id=7 не найден", likes.get(3).getError());
+        assertEquals(2, filmStorage.findById(1).getLikes().size());
+        assertNull(friendships.get(0).getError());
+        assertNotNull(friendships.get(1).getError());
+        assertTrue(userStorage.findById(2).getFriends().contains(1));
+    }
+
+    private Like like(int filmId, int userId) {
+        Like like = new Like();
+        like.setFilmId(filmId);
+        like.setUserId(userId);
+        return like;
+    }
+
+    private Friendship friendship(int userId, int friendId) {
+        Friendship friendship = new Friendship();
+        friendship.setUserId(userId);
+        friendship.setFriendId(friendId);
+        return friendship;
+    }
+
+    private Film film() {
+        Film film = new Film();
+        film.setName("Matrix");
+        film.setDescription("Good film");
+        film.setReleaseDate(LocalDate.of(1999, 3, 31));
+        film.setDuration(120);
+        return film;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setName("User");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,148 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilmCatalogIndexTest {
+
+    private FilmService filmService;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        filmService = new FilmService(new InMemoryFilmStorage(), userStorage,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        for (int i = 0; i < 3; i++) {
+            userStorage.create(user());
+        }
+        filmService.createFilm(film(1999, 136));
+        filmService.createFilm(film(1999, 90));
+        filmService.createFilm(film(2010, 148));
+        filmService.createFilm(film(1999, 120));
+        filmService.addLike(2, 1);
+        filmService.addLike(2, 2);
+        filmService.addLike(4, 1);
+        filmService.addLike(3, 1);
+        filmService.addLike(3, 2);
+        filmService.addLike(3, 3);
+    }
+
+    @Test
+    void shouldFilterPopularFilmsByYearAndDuration() {
+        assertEquals(List.of(3, 2, 4, 1), ids(filmService.getPopularFilms(10, null, null, null)));
+        assertEquals(List.of(2, 4, 1), ids(filmService.getPopularFilms(10, 1999, null, null)));
+        assertEquals(List.of(2), ids(filmService.getPopularFilms(1, 1999, null, null)));
+        assertEquals(List.of(4, 1), ids(filmService.getPopularFilms(10, 1999, 100, null)));
+        assertEquals(List.of(3, 4, 1), ids(filmService.getPopularFilms(10, null, 100, 148)));
+        assertEquals(List.of(2), ids(filmService.getPopularFilms(10, null, null, 90)));
+        assertTrue(filmService.getPopularFilms(10, 1895, null, null).isEmpty());
+        assertThrows(ValidationException.class, () -> filmService.getPopularFilms(10, null, 120, 90));
+    }
+
+    @Test
+    void shouldKeepIndexesInSyncWithLikesAndUpdates() {
+        filmService.removeLike(2, 1);
+        filmService.removeLike(2, 2);
+        filmService.addLike(1, 3);
+        assertEquals(List.of(1, 4, 2), ids(filmService.getPopularFilms(10, 1999, null, null)));
+
+        Film moved = film(2010, 95);
+        moved.setId(4);
+        filmService.updateFilm(moved);
+        assertEquals(List.of(1, 2), ids(filmService.getPopularFilms(10, 1999, null, null)));
+        assertEquals(List.of(3, 4), ids(filmService.getPopularFilms(10, 2010, null, null)));
+        assertEquals(List.of(2, 4), ids(filmService.getPopularFilms(10, null, 90, 100)));
+    }
+
+    @Test
+    void shouldRankDurationRangeAcrossBucketsAndReplaceUnindexedFilm() {
+        for (int i = 0; i < 20; i++) {
+            filmService.createFilm(film(2000 + i, 100 + i));
+        }
+        filmService.addLike(24, 1);
+        filmService.addLike(24, 2);
+        assertEquals(List.of(24, 4, 5), ids(filmService.getPopularFilms(3, null, 100, 130)));
+        assertEquals(List.of(5, 6), ids(filmService.getPopularFilms(2, null, 100, 101)));
+
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        FilmService service = new FilmService(storage, new InMemoryUserStorage(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        storage.create(film(1999, 100));
+        Film updated = film(2001, 110);
+        updated.setId(1);
+        service.updateFilm(updated);
+        assertEquals(List.of(1), ids(service.getPopularFilms(10, 2001, null, null)));
+    }
+
+    @Test
+    void shouldMatchStoredFilmAfterConcurrentUpdates() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 2_000; i++) {
+                        boolean alpha = random.nextBoolean();
+                        Film replacement = film(alpha ? 2000 : 2010, alpha ? 100 : 200);
+                        replacement.setId(1);
+                        replacement.setName(alpha ? "Alpha" : "Bravo");
+                        filmService.updateFilm(replacement);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        boolean alpha = filmService.getFilmById(1).getName().equals("Alpha");
+        assertEquals(alpha, ids(filmService.getPopularFilms(10, 2000, null, null)).contains(1));
+        assertEquals(!alpha, ids(filmService.getPopularFilms(10, 2010, null, null)).contains(1));
+        assertEquals(alpha, ids(filmService.getPopularFilms(10, null, 100, 100)).contains(1));
+        assertEquals(!alpha, ids(filmService.getPopularFilms(10, null, 200, 200)).contains(1));
+        assertEquals(alpha, ids(filmService.searchFilms("alpha", 10)).contains(1));
+        assertEquals(!alpha, ids(filmService.searchFilms("bravo", 10)).contains(1));
+    }
+
+    private List<Integer> ids(List<Film> films) {
+        return films.stream().map(Film::getId).toList();
+    }
+
+    private Film film(int year, int duration) {
+        Film film = new Film();
+        film.setName("Matrix");
+        film.setDescription("Good film");
+        film.setReleaseDate(LocalDate.of(year, 3, 31));
+        film.setDuration(duration);
+        return film;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setName("User");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilmRecommendationsTest {
+
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private FilmService filmService;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        userStorage = new InMemoryUserStorage();
+        filmService = new FilmService(filmStorage, userStorage, Validation.buildDefaultValidatorFactory().getValidator());
+        for (int i = 0; i < 4; i++) {
+            userStorage.create(user());
+        }
+        for (int i = 0; i < 5; i++) {
+            filmService.createFilm(film());
+        }
+    }
+
+    @Test
+    void shouldRecommendFilmsOfMostSimilarUsers() {
+        filmService.addLike(1, 1);
+        filmService.addLike(2, 1);
+        filmService.addLike(1, 2);
+        filmService.addLike(2, 2);
+        filmService.addLike(3, 2);
+        filmService.addLike(1, 3);
+        filmService.addLike(4, 3);
+        filmService.addLike(5, 3);
+        filmService.addLike(5, 4);
+
+        assertEquals(List.of(3, 4, 5), ids(filmService.getRecommendations(1, 10)));
+        assertEquals(List.of(3), ids(filmService.getRecommendations(1, 1)));
+        assertEquals(List.of(1, 4), ids(filmService.getRecommendations(4, 10)));
+        assertThrows(ValidationException.class, () -> filmService.getRecommendations(1, 0));
+        assertThrows(NotFoundException.class, () -> filmService.getRecommendations(42, 10));
+    }
+
+    @Test
+    void shouldFollowLikeChangesAndStorageContents() {
+        filmService.addLike(1, 1);
+        filmService.addLike(1, 2);
+        filmService.addLike(2, 2);
+        assertEquals(List.of(2), ids(filmService.getRecommendations(1, 10)));
+
+        filmService.removeLike(1, 2);
+        assertTrue(filmService.getRecommendations(1, 10).isEmpty());
+
+        Film renamed = film();
+        renamed.setId(3);
+        renamed.setLikes(Set.of(1, 2));
+        filmService.updateFilm(renamed);
+        assertEquals(List.of(2), ids(filmService.getRecommendations(1, 10)));
+
+        FilmService restarted = new FilmService(filmStorage, userStorage,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        assertEquals(List.of(2), ids(restarted.getRecommendations(1, 10)));
+    }
+
+    private List<Integer> ids(List<Film> films) {
+        return films.stream().map(Film::getId).toList();
+    }
+
+    private Film film() {
+        Film film = new Film();
+        film.setName("Matrix");
+        film.setDescription("Good film");
+        film.setReleaseDate(LocalDate.of(1999, 3, 31));
+        film.setDuration(120);
+        return film;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setName("User");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
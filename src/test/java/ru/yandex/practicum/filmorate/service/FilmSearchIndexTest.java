@@ -0,0 +1,114 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilmSearchIndexTest {
+
+    private InMemoryFilmStorage filmStorage;
+    private FilmService filmService;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        filmService = new FilmService(filmStorage, userStorage, Validation.buildDefaultValidatorFactory().getValidator());
+        userStorage.create(user());
+        filmService.createFilm(film("Матрица", "Хакер Нео узнаёт правду о мире"));
+        filmService.createFilm(film("Matrix Reloaded", "Neo returns"));
+        filmService.createFilm(film("Ёлки", "Новогодняя комедия про матрицу желаний"));
+        filmService.createFilm(film("Inception", "Dreams within dreams"));
+    }
+
+    @Test
+    void shouldFindByCaseFoldedWordsAndPrefixes() {
+        assertEquals(List.of(2), ids(filmService.searchFilms("MATRIX", 10)));
+        assertEquals(List.of(1, 3), ids(filmService.searchFilms("матриц", 10)));
+        assertEquals(List.of(3), ids(filmService.searchFilms("елки", 10)));
+        assertEquals(List.of(2), ids(filmService.searchFilms("neo ret", 10)));
+        assertTrue(filmService.searchFilms("neo dreams", 10).isEmpty());
+        assertThrows(ValidationException.class, () -> filmService.searchFilms(" ", 10));
+        assertThrows(ValidationException.class, () -> filmService.searchFilms("neo", 0));
+    }
+
+    @Test
+    void shouldRankByRelevanceAndPopularity() {
+        filmService.createFilm(film("Dreams", "Short film"));
+        filmService.createFilm(film("Sweet dreams", "Music film"));
+        assertEquals(List.of(5, 6, 4), ids(filmService.searchFilms("dreams", 10)));
+
+        filmService.addLike(6, 1);
+        assertEquals(List.of(6, 5, 4), ids(filmService.searchFilms("dreams", 10)));
+        assertEquals(List.of(6, 5), ids(filmService.searchFilms("dreams", 2)));
+    }
+
+    @Test
+    void shouldConsiderNewPopularFilmsForCommonWords() {
+        for (int i = 0; i < 1_500; i++) {
+            filmService.createFilm(film("Drama " + i, "Common word"));
+        }
+        int newest = filmService.createFilm(film("Drama newest", "Common word")).getId();
+        filmService.addLike(newest, 1);
+
+        assertEquals(newest, filmService.searchFilms("drama", 10).get(0).getId());
+        assertEquals(newest, filmService.searchFilms("dram common", 10).get(0).getId());
+    }
+
+    @Test
+    void shouldNotSpendPrefixExpansionOnRemovedWords() {
+        for (int i = 0; i < 40; i++) {
+            Film film = filmService.createFilm(film("Abc" + i, "Temporary"));
+            Film renamed = film("Other", "Temporary");
+            renamed.setId(film.getId());
+            filmService.updateFilm(renamed);
+        }
+        filmService.createFilm(film("Abcz", "Kept"));
+
+        assertEquals(1, filmService.searchFilms("abc", 10).size());
+    }
+
+    @Test
+    void shouldUpdateIndexWhenFilmChanges() {
+        Film renamed = film("Начало", "Сны внутри снов");
+        renamed.setId(4);
+        filmService.updateFilm(renamed);
+
+        assertTrue(filmService.searchFilms("inception", 10).isEmpty());
+        assertEquals(List.of(4), ids(filmService.searchFilms("начало", 10)));
+        assertEquals(List.of(4), ids(new FilmService(filmStorage, new InMemoryUserStorage(),
+                Validation.buildDefaultValidatorFactory().getValidator()).searchFilms("сны", 10)));
+    }
+
+    private List<Integer> ids(List<Film> films) {
+        return films.stream().map(Film::getId).toList();
+    }
+
+    private Film film(String name, String description) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(description);
+        film.setReleaseDate(LocalDate.of(1999, 3, 31));
+        film.setDuration(120);
+        return film;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setName("User");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
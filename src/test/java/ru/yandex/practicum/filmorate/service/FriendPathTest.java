@@ -0,0 +1,181 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FriendPathTest {
+
+    private InMemoryUserStorage userStorage;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userStorage = new InMemoryUserStorage();
+        for (int i = 0; i < 8; i++) {
+            userStorage.create(user());
+        }
+        userService = new UserService(userStorage, Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    @Test
+    void shouldFindShortestChainOfFriends() {
+        userService.addFriend(1, 2);
+        userService.addFriend(2, 3);
+        userService.addFriend(3, 4);
+        userService.addFriend(4, 5);
+        userService.addFriend(1, 6);
+        userService.addFriend(6, 5);
+
+        assertEquals(List.of(1, 6, 5), ids(userService.getFriendPath(1, 5, 6)));
+        assertEquals(List.of(5, 6, 1), ids(userService.getFriendPath(5, 1, 6)));
+        assertEquals(List.of(1, 2), ids(userService.getFriendPath(1, 2, 6)));
+        assertEquals(List.of(3), ids(userService.getFriendPath(3, 3, 6)));
+
+        userService.removeFriend(6, 5);
+        assertEquals(List.of(1, 2, 3, 4, 5), ids(userService.getFriendPath(1, 5, 6)));
+    }
+
+    @Test
+    void shouldRespectMaxDepthAndReportMissingUsers() {
+        userService.addFriend(1, 2);
+        userService.addFriend(2, 3);
+        userService.addFriend(3, 4);
+
+        assertEquals(4, userService.getFriendPath(1, 4, 3).size());
+        assertThrows(NotFoundException.class, () -> userService.getFriendPath(1, 4, 2));
+        assertThrows(NotFoundException.class, () -> userService.getFriendPath(1, 7, 6));
+        assertThrows(NotFoundException.class, () -> userService.getFriendPath(1, 99, 6));
+        assertThrows(ValidationException.class, () -> userService.getFriendPath(1, 4, 0));
+    }
+
+    @Test
+    void shouldMatchPlainBreadthFirstSearchOnRandomGraph() {
+        Random random = new Random(7);
+        FriendGraph graph = new FriendGraph(List.of());
+        int users = 2_000;
+        while (userStorage.findAll().size() < users) {
+            userStorage.create(user());
+        }
+        for (int i = 0; i < users * 2; i++) {
+            int a = 1 + random.nextInt(users);
+            int b = 1 + random.nextInt(users);
+            if (a != b) {
+                link(graph, a, b);
+            }
+        }
+        for (int i = 0; i < 200; i++) {
+            int from = 1 + random.nextInt(users);
+            int to = 1 + random.nextInt(users);
+            int expected = distance(graph, from, to, users);
+            int[] path = graph.shortestPath(from, to, FriendGraph.MAX_DEPTH);
+            if (expected < 0 || expected > FriendGraph.MAX_DEPTH) {
+                assertNull(path);
+                continue;
+            }
+            assertEquals(expected + 1, path.length);
+            assertEquals(from, path[0]);
+            assertEquals(to, path[path.length - 1]);
+            for (int j = 1; j < path.length; j++) {
+                assertTrue(Arrays.binarySearch(graph.friends(path[j - 1]), path[j]) >= 0);
+            }
+        }
+    }
+
+    @Test
+    void shouldKeepGraphInLineWithStorageUnderConcurrentChanges() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 5_000; i++) {
+                        int a = 1 + random.nextInt(8);
+                        int b = 1 + random.nextInt(8);
+                        if (a == b) {
+                            continue;
+                        }
+                        if (random.nextBoolean()) {
+                            userService.addFriend(a, b);
+                        } else {
+                            userService.removeFriend(a, b);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int a = 1; a <= 8; a++) {
+            for (int b = 1; b <= 8; b++) {
+                if (a == b) {
+                    continue;
+                }
+                int from = a;
+                int to = b;
+                if (userStorage.findById(a).getFriends().contains(b)) {
+                    assertEquals(List.of(a, b), ids(userService.getFriendPath(a, b, 1)));
+                } else {
+                    assertThrows(NotFoundException.class, () -> userService.getFriendPath(from, to, 1));
+                }
+            }
+        }
+    }
+
+    private void link(FriendGraph graph, int a, int b) {
+        userStorage.addFriend(a, b);
+        graph.update(userStorage.findById(a));
+        graph.update(userStorage.findById(b));
+    }
+
+    private static int distance(FriendGraph graph, int from, int to, int users) {
+        int[] distances = new int[users + 1];
+        Arrays.fill(distances, -1);
+        distances[from] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>(List.of(from));
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int next : graph.friends(node)) {
+                if (distances[next] < 0) {
+                    distances[next] = distances[node] + 1;
+                    queue.add(next);
+                }
+            }
+        }
+        return distances[to];
+    }
+
+    private static List<Integer> ids(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
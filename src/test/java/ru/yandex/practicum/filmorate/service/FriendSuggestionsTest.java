@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FriendSuggestionsTest {
+
+    private InMemoryUserStorage userStorage;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userStorage = new InMemoryUserStorage();
+        userService = new UserService(userStorage, Validation.buildDefaultValidatorFactory().getValidator());
+        for (int i = 0; i < 6; i++) {
+            userStorage.create(user());
+        }
+    }
+
+    @Test
+    void shouldRankSecondDegreeContactsByMutualFriends() {
+        userService.addFriend(1, 2);
+        userService.addFriend(1, 3);
+        userService.addFriend(2, 4);
+        userService.addFriend(3, 4);
+        userService.addFriend(2, 5);
+        userService.addFriend(2, 3);
+
+        assertEquals(List.of(4, 5), ids(userService.getFriendSuggestions(1, 10)));
+        assertEquals(List.of(4), ids(userService.getFriendSuggestions(1, 1)));
+        assertTrue(userService.getFriendSuggestions(6, 10).isEmpty());
+        assertThrows(ValidationException.class, () -> userService.getFriendSuggestions(1, 0));
+    }
+
+    @Test
+    void shouldInvalidateCachedSuggestionsWhenFriendshipChanges() {
+        userService.addFriend(1, 2);
+        userService.addFriend(2, 3);
+        assertEquals(List.of(3), ids(userService.getFriendSuggestions(1, 10)));
+
+        userService.addFriend(2, 6);
+        assertEquals(List.of(3, 6), ids(userService.getFriendSuggestions(1, 10)));
+
+        userService.addFriend(1, 3);
+        assertEquals(List.of(6), ids(userService.getFriendSuggestions(1, 10)));
+
+        userService.removeFriend(2, 6);
+        assertTrue(userService.getFriendSuggestions(1, 10).isEmpty());
+    }
+
+    @Test
+    void shouldInvalidateCachedSuggestionsWhenUserIsReplaced() {
+        userService.addFriend(1, 2);
+        userService.addFriend(2, 3);
+        assertEquals(List.of(3), ids(userService.getFriendSuggestions(1, 10)));
+
+        User replacement = user();
+        replacement.setId(2);
+        replacement.setFriends(List.of(1, 3, 4));
+        userService.updateUser(replacement);
+
+        assertEquals(List.of(3, 4), ids(userService.getFriendSuggestions(1, 10)));
+    }
+
+    @Test
+    void shouldStayBoundedAroundCelebrity() {
+        for (int i = 0; i < 20_000; i++) {
+            userStorage.create(user());
+        }
+        for (int id = 2; id <= 20_006; id++) {
+            userStorage.addFriend(1, id);
+        }
+        userService.addFriend(2, 3);
+
+        List<User> suggestions = userService.getFriendSuggestions(2, 200);
+
+        assertEquals(FriendSuggestions.MAX_SUGGESTIONS, suggestions.size());
+        assertFalse(ids(suggestions).contains(2));
+        assertFalse(ids(suggestions).contains(1));
+        assertFalse(ids(suggestions).contains(3));
+    }
+
+    private List<Integer> ids(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
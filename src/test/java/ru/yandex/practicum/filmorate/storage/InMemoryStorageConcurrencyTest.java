@@ -0,0 +1,151 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryStorageConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+
+    private ValidatorFactory factory;
+    private Validator validator;
+    private ExecutorService executor;
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+
+    @BeforeEach
+    void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+        executor = Executors.newFixedThreadPool(THREADS);
+        filmStorage = new InMemoryFilmStorage();
+        userStorage = new InMemoryUserStorage();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        factory.close();
+    }
+
+    @Test
+    void shouldAssignUniqueIdsUnderConcurrentCreates() throws Exception {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                ids.add(filmStorage.create(film()).getId());
+                userStorage.create(user());
+            }
+        });
+
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, ids.size());
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, filmStorage.findAll().size());
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, userStorage.findAll().size());
+    }
+
+    @Test
+    void shouldNotLoseConcurrentLikes() throws Exception {
+        FilmService filmService = new FilmService(filmStorage, userStorage, validator);
+        Film film = filmStorage.create(film());
+        for (int i = 0; i < THREADS * OPERATIONS_PER_THREAD; i++) {
+            userStorage.create(user());
+        }
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                filmService.addLike(film.getId(), thread * OPERATIONS_PER_THREAD + i + 1);
+            }
+        });
+
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, filmStorage.findById(film.getId()).getLikes().size());
+    }
+
+    @Test
+    void shouldNotLoseConcurrentFriendships() throws Exception {
+        UserService userService = new UserService(userStorage, validator);
+        User celebrity = userStorage.create(user());
+        for (int i = 0; i < THREADS * OPERATIONS_PER_THREAD; i++) {
+            userStorage.create(user());
+        }
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                userService.addFriend(celebrity.getId(), thread * OPERATIONS_PER_THREAD + i + 2);
+            }
+        });
+
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, userStorage.findById(celebrity.getId()).getFriends().size());
+        for (User user : userStorage.findAll()) {
+            if (user.getId() != celebrity.getId()) {
+                assertTrue(user.getFriends().contains(celebrity.getId()));
+            }
+        }
+    }
+
+    private void runConcurrently(Runnable task) throws Exception {
+        runConcurrently(thread -> task.run());
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private Film film() {
+        Film film = new Film();
+        film.setName("Matrix");
+        film.setDescription("Good film");
+        film.setReleaseDate(LocalDate.of(1999, 3, 31));
+        film.setDuration(120);
+        return film;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setName("User");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryStoragePagingTest {
+
+    @Test
+    void shouldWalkAllFilmsPageByPageInIdOrder() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        for (int i = 0; i < 25; i++) {
+            storage.create(film());
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        int after = 0;
+        List<Film> page;
+        do {
+            page = storage.findPage(after, 10);
+            page.forEach(film -> ids.add(film.getId()));
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 10);
+
+        assertEquals(25, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i + 1, (int) ids.get(i));
+        }
+        assertTrue(storage.findPage(25, 10).isEmpty());
+    }
+
+    @Test
+    void shouldRejectNonPositivePageSize() {
+        FilmService filmService = new FilmService(new InMemoryFilmStorage(), new InMemoryUserStorage(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+
+        assertThrows(ValidationException.class, () -> filmService.getFilmsPage(0, 0));
+    }
+
+    private Film film() {
+        Film film = new Film();
+        film.setName("Matrix");
+        film.setDescription("Good film");
+        film.setReleaseDate(LocalDate.of(1999, 3, 31));
+        film.setDuration(120);
+        return film;
+    }
+}
@@ -0,0 +1,141 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapFilmStorage;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapUserStorage;
+import ru.yandex.practicum.filmorate.storage.partitioned.PartitionedFilmStorage;
+import ru.yandex.practicum.filmorate.storage.partitioned.PartitionedUserStorage;
+import ru.yandex.practicum.filmorate.storage.snapshot.SnapshotFilmStorage;
+import ru.yandex.practicum.filmorate.storage.snapshot.SnapshotUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageLookupTest {
+
+    @Test
+    void shouldLookUpFilmsWithoutExceptionsInEveryEngine() {
+        List<FilmStorage> storages = List.of(new InMemoryFilmStorage(), new SnapshotFilmStorage(),
+                new PartitionedFilmStorage(4, ForkJoinPool.commonPool()), new OffHeapFilmStorage());
+        for (FilmStorage storage : storages) {
+            for (int i = 0; i < 5; i++) {
+                storage.create(film());
+            }
+            String engine = storage.getClass().getSimpleName();
+
+            assertTrue(storage.exists(3), engine);
+            assertFalse(storage.exists(6), engine);
+            assertFalse(storage.exists(0), engine);
+            assertEquals(3, storage.find(3).orElseThrow().getId(), engine);
+            assertTrue(storage.find(-1).isEmpty(), engine);
+            assertEquals(List.of(5, 1, 3), storage.findAllById(new int[]{5, 7, 1, 3}).stream()
+                    .map(Film::getId)
+                    .toList(), engine);
+        }
+    }
+
+    @Test
+    void shouldLookUpUsersWithoutExceptionsInEveryEngine() {
+        List<UserStorage> storages = List.of(new InMemoryUserStorage(), new SnapshotUserStorage(),
+                new PartitionedUserStorage(4), new OffHeapUserStorage());
+        for (UserStorage storage : storages) {
+            for (int i = 0; i < 5; i++) {
+                storage.create(user());
+            }
+            String engine = storage.getClass().getSimpleName();
+
+            assertTrue(storage.exists(5), engine);
+            assertFalse(storage.exists(100), engine);
+            assertEquals(2, storage.find(2).orElseThrow().getId(), engine);
+            assertTrue(storage.find(100).isEmpty(), engine);
+            assertEquals(List.of(4, 2), storage.findAllById(new int[]{4, 100, 2}).stream()
+                    .map(User::getId)
+                    .toList(), engine);
+        }
+    }
+
+    @Test
+    void shouldKeepLikeAndFriendCountsInEveryEngine() {
+        List<FilmStorage> filmStorages = List.of(new InMemoryFilmStorage(), new SnapshotFilmStorage(),
+                new PartitionedFilmStorage(4, ForkJoinPool.commonPool()), new OffHeapFilmStorage());
+        for (FilmStorage storage : filmStorages) {
+            String engine = storage.getClass().getSimpleName();
+            Film liked = film();
+            liked.setLikes(List.of(1, 2));
+            storage.create(liked);
+            storage.create(film());
+            storage.addLike(2, 1);
+            storage.addLike(2, 1);
+            storage.applyLikes(2, new int[]{2, 3}, new int[]{1, 7});
+            storage.removeLike(1, 2);
+            Film replaced = film();
+            replaced.setId(1);
+            replaced.setLikes(List.of(4, 5, 6));
+            storage.update(replaced);
+
+            assertEquals(5, storage.countLikes(), engine);
+        }
+
+        List<UserStorage> userStorages = List.of(new InMemoryUserStorage(), new SnapshotUserStorage(),
+                new PartitionedUserStorage(4), new OffHeapUserStorage());
+        for (UserStorage storage : userStorages) {
+            String engine = storage.getClass().getSimpleName();
+            for (int i = 0; i < 4; i++) {
+                storage.create(user());
+            }
+            storage.addFriend(1, 2);
+            storage.addFriend(1, 2);
+            storage.addFriend(1, 3);
+            storage.addFriend(3, 4);
+            storage.removeFriend(1, 3);
+            storage.removeFriend(1, 3);
+            User replaced = user();
+            replaced.setId(4);
+            storage.update(replaced);
+
+            assertEquals(3, storage.countFriendLinks(), engine);
+            assertEquals(1, storage.maxFriends(), engine);
+
+            storage.addFriend(1, 3);
+            storage.addFriend(1, 4);
+            assertEquals(3, storage.maxFriends(), engine);
+            storage.removeFriend(1, 2);
+            assertEquals(2, storage.maxFriends(), engine);
+        }
+    }
+
+    @Test
+    void shouldNotCaptureStackTraceForMissingEntity() {
+        NotFoundException e = assertThrows(NotFoundException.class, () -> new InMemoryUserStorage().findById(1));
+
+        assertEquals("Пользователь с id=1 не найден", e.getMessage());
+        assertEquals(0, e.getStackTrace().length);
+    }
+
+    private Film film() {
+        Film film = new Film();
+        film.setName("Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilmPopularityIndexTest {
+
+    @Test
+    void shouldOrderByLikesThenById() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        Film first = storage.create(film());
+        Film second = storage.create(film());
+        Film third = storage.create(film());
+
+        storage.addLike(third.getId(), 1);
+        storage.addLike(third.getId(), 2);
+        storage.addLike(second.getId(), 1);
+
+        assertEquals(List.of(third.getId(), second.getId(), first.getId()), ids(storage.findPopular(10)));
+        assertEquals(List.of(third.getId()), ids(storage.findPopular(1)));
+    }
+
+    @Test
+    void shouldReorderOnRemoveLikeAndUpdate() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        Film first = storage.create(film());
+        Film second = storage.create(film());
+
+        storage.addLike(second.getId(), 1);
+        storage.removeLike(second.getId(), 1);
+        assertEquals(List.of(first.getId(), second.getId()), ids(storage.findPopular(2)));
+
+        Film replacement = film();
+        replacement.setId(second.getId());
+        replacement.setLikes(Set.of(1, 2));
+        storage.update(replacement);
+        assertEquals(List.of(second.getId(), first.getId()), ids(storage.findPopular(2)));
+    }
+
+    @Test
+    void shouldStayConsistentUnderConcurrentLikes() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        int filmCount = 50;
+        for (int i = 0; i < filmCount; i++) {
+            storage.create(film());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int filmId = 1; filmId <= filmCount; filmId++) {
+                int likes = filmId * 10;
+                int id = filmId;
+                futures.add(executor.submit(() -> {
+                    for (int userId = 1; userId <= likes; userId++) {
+                        storage.addLike(id, userId);
+                        storage.findPopular(5);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Film> popular = storage.findPopular(filmCount);
+        assertEquals(filmCount, popular.size());
+        for (int i = 0; i < filmCount; i++) {
+            assertEquals(filmCount - i, popular.get(i).getId());
+        }
+    }
+
+    private List<Integer> ids(List<Film> films) {
+        return films.stream().map(Film::getId).toList();
+    }
+
+    private Film film() {
+        Film film = new Film();
+        film.setName("Matrix");
+        film.setDescription("Good film");
+        film.setReleaseDate(LocalDate.of(1999, 3, 31));
+        film.setDuration(120);
+        return film;
+    }
+}
@@ -0,0 +1,182 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageJournalTest {
+
+    private Path directory;
+    private JournalProperties properties;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+        properties = new JournalProperties();
+        properties.setDirectory(directory);
+        properties.setFsync(FsyncPolicy.ALWAYS);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Test
+    void shouldRestoreStateFromJournalAfterRestart() throws IOException {
+        Opened first = open();
+        Film film = first.films.create(film("Matrix"));
+        first.users.create(user());
+        first.users.create(user());
+        first.films.addLike(film.getId(), 1);
+        first.films.addLike(film.getId(), 2);
+        first.films.removeLike(film.getId(), 1);
+        first.users.addFriend(1, 2);
+        Film renamed = film("Matrix Reloaded");
+        renamed.setId(film.getId());
+        renamed.setLikes(Set.of(2));
+        first.films.update(renamed);
+        first.journal.close();
+
+        Opened second = open();
+        Film restored = second.memoryFilms.findById(film.getId());
+        assertEquals("Matrix Reloaded", restored.getName());
+        assertEquals(LocalDate.of(1999, 3, 31), restored.getReleaseDate());
+        assertEquals(Set.of(2), restored.getLikes());
+        assertEquals(Set.of(2), second.memoryUsers.findById(1).getFriends());
+        assertEquals(Set.of(1), second.memoryUsers.findById(2).getFriends());
+        assertEquals(2, second.films.create(film("New")).getId());
+        second.journal.close();
+    }
+
+    @Test
+    void shouldReplayJournalTailOnTopOfSnapshot() throws IOException {
+        Opened first = open();
+        for (int i = 0; i < 100; i++) {
+            first.films.create(film("Film " + i));
+        }
+        first.users.create(user());
+        first.journal.snapshot();
+        first.films.addLike(50, 1);
+        first.films.create(film("After snapshot"));
+        first.journal.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            List<String> names = files.map(file -> file.getFileName().toString()).sorted().toList();
+            assertEquals(1, names.stream().filter(name -> name.startsWith("snapshot-")).count());
+        }
+
+        Opened second = open();
+        assertEquals(101, second.memoryFilms.findAll().size());
+        assertEquals(Set.of(1), second.memoryFilms.findById(50).getLikes());
+        assertEquals(50, second.memoryFilms.findPopular(1).get(0).getId());
+        second.journal.close();
+    }
+
+    @Test
+    void shouldIgnoreTornTailOfJournal() throws IOException {
+        Opened first = open();
+        first.films.create(film("Matrix"));
+        first.journal.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.getFileName().toString().startsWith("journal-"))
+                    .filter(file -> file.toFile().length() > 0)
+                    .findFirst()
+                    .orElseThrow();
+        }
+        Files.write(segment, new byte[]{0, 0, 1, 0, 7}, StandardOpenOption.APPEND);
+
+        Opened second = open();
+        assertEquals(1, second.memoryFilms.findAll().size());
+        second.journal.close();
+    }
+
+    @Test
+    void shouldReleaseWritersWhenClosedUnderLoad() throws Exception {
+        properties.setQueueCapacity(4);
+        Opened opened = open();
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread writer = new Thread(() -> {
+                try {
+                    while (true) {
+                        opened.films.create(film("Matrix"));
+                    }
+                } catch (IllegalStateException | CompletionException e) {
+                    // журнал закрыт
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        Thread.sleep(50);
+        opened.journal.close();
+
+        for (Thread writer : writers) {
+            writer.join(5_000);
+            assertFalse(writer.isAlive());
+        }
+    }
+
+    @Test
+    void shouldRejectZeroFsyncInterval() {
+        properties.setFsyncInterval(Duration.ZERO);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new StorageJournal(properties, new InMemoryFilmStorage(), new InMemoryUserStorage()));
+    }
+
+    private Opened open() throws IOException {
+        InMemoryFilmStorage films = new InMemoryFilmStorage();
+        InMemoryUserStorage users = new InMemoryUserStorage();
+        StorageJournal journal = new StorageJournal(properties, films, users);
+        journal.open();
+        return new Opened(journal, films, users, new JournalingFilmStorage(films, journal),
+                new JournalingUserStorage(users, journal));
+    }
+
+    private Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Good film");
+        film.setReleaseDate(LocalDate.of(1999, 3, 31));
+        film.setDuration(120);
+        return film;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+
+    private record Opened(StorageJournal journal, InMemoryFilmStorage memoryFilms, InMemoryUserStorage memoryUsers,
+                          JournalingFilmStorage films, JournalingUserStorage users) {
+    }
+}
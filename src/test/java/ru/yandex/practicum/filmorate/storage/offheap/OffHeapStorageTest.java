@@ -0,0 +1,151 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStorageTest {
+
+    @Test
+    void shouldMaterializeFilmsFromOffHeapRecords() {
+        OffHeapFilmStorage storage = new OffHeapFilmStorage();
+        Film film = film("Сталкер");
+        film.setLikes(Set.of(3, 1, 2));
+        storage.create(film);
+        Film withoutDate = film("Untitled");
+        withoutDate.setReleaseDate(null);
+        withoutDate.setDescription(null);
+        storage.create(withoutDate);
+
+        Film restored = storage.findById(1);
+        assertEquals(film, restored);
+        assertNotSame(film, restored);
+        assertEquals(Set.of(1, 2, 3), restored.getLikes());
+        assertNull(storage.findById(2).getReleaseDate());
+        assertNull(storage.findById(2).getDescription());
+
+        Film renamed = film("Солярис");
+        renamed.setId(1);
+        storage.update(renamed);
+        assertEquals("Солярис", storage.findById(1).getName());
+        assertTrue(storage.findById(1).getLikes().isEmpty());
+        assertEquals(List.of(1, 2), storage.findAll().stream().map(Film::getId).toList());
+        assertEquals(2, storage.findAll().size());
+        assertThrows(NotFoundException.class, () -> storage.findById(3));
+        assertThrows(NotFoundException.class, () -> storage.addLike(3, 1));
+    }
+
+    @Test
+    void shouldSwitchDenseLikesToBitmapAndBack() {
+        OffHeapFilmStorage storage = new OffHeapFilmStorage();
+        storage.create(film("Hit"));
+        for (int userId = 3_000; userId >= 1; userId--) {
+            assertTrue(storage.addLike(1, userId));
+        }
+        assertFalse(storage.addLike(1, 1_500));
+        assertTrue(storage.addLike(1, 100_000));
+        assertEquals(3_001, storage.findById(1).getLikes().size());
+
+        for (int userId = 1; userId <= 2_900; userId++) {
+            assertTrue(storage.removeLike(1, userId));
+        }
+        assertFalse(storage.removeLike(1, 1));
+        Set<Integer> expected = IntStream.rangeClosed(2_901, 3_000).boxed()
+                .collect(Collectors.toSet());
+        expected.add(100_000);
+        assertEquals(expected, storage.findById(1).getLikes());
+    }
+
+    @Test
+    void shouldRankLikedFilmsAndFillWithUnliked() {
+        OffHeapFilmStorage storage = new OffHeapFilmStorage();
+        for (int i = 0; i < 5; i++) {
+            storage.create(film("Film " + i));
+        }
+        storage.addLike(4, 1);
+        storage.addLike(4, 2);
+        storage.addLike(2, 1);
+        storage.addLike(3, 1);
+        storage.removeLike(3, 1);
+
+        assertEquals(List.of(4, 2, 1, 3), storage.findPopular(4).stream().map(Film::getId).toList());
+        assertEquals(List.of(4), storage.findPopular(1).stream().map(Film::getId).toList());
+        assertEquals(5, storage.findPopular(10).size());
+    }
+
+    @Test
+    void shouldKeepFriendshipSymmetric() {
+        OffHeapUserStorage storage = new OffHeapUserStorage();
+        for (int i = 0; i < 70; i++) {
+            storage.create(user());
+        }
+        assertTrue(storage.addFriend(1, 2));
+        assertTrue(storage.addFriend(1, 65));
+        assertFalse(storage.addFriend(2, 1));
+
+        assertEquals(Set.of(2, 65), storage.findById(1).getFriends());
+        assertEquals(Set.of(1), storage.findById(65).getFriends());
+        assertTrue(storage.removeFriend(65, 1));
+        assertEquals(Set.of(2), storage.findById(1).getFriends());
+        assertEquals(List.of(2, 3), storage.findAllById(new int[]{2, 100, 3}).stream().map(User::getId).toList());
+        assertThrows(NotFoundException.class, () -> storage.addFriend(1, 100));
+        assertEquals("user@mail.ru", storage.findById(70).getEmail());
+        assertEquals(LocalDate.of(2000, 1, 1), storage.findById(70).getBirthday());
+    }
+
+    @Test
+    void shouldNotLoseConcurrentLikes() {
+        OffHeapFilmStorage storage = new OffHeapFilmStorage();
+        for (int i = 0; i < 10; i++) {
+            storage.create(film("Film " + i));
+        }
+        IntStream.range(0, 20_000).parallel().forEach(i -> storage.addLike(1 + i % 10, i));
+
+        for (int filmId = 1; filmId <= 10; filmId++) {
+            assertEquals(2_000, storage.findById(filmId).getLikes().size());
+        }
+    }
+
+    @Test
+    void shouldReuseFreedBlocksLargerThanPage() {
+        OffHeapMemory memory = new OffHeapMemory();
+        long first = memory.allocate(5 << 20);
+        memory.putInt(first, (5 << 20) - Integer.BYTES, 42);
+        long reserved = memory.reservedBytes();
+        memory.free(first, 5 << 20);
+
+        long second = memory.allocate(6 << 20);
+
+        assertEquals(first, second);
+        assertEquals(reserved, memory.reservedBytes());
+        memory.putInt(second, (6 << 20) - Integer.BYTES, 7);
+        assertEquals(7, memory.getInt(second, (6 << 20) - Integer.BYTES));
+        assertThrows(IllegalArgumentException.class, () -> memory.allocate((1 << 30) + 1));
+    }
+
+    private Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Описание");
+        film.setReleaseDate(LocalDate.of(1979, 5, 25));
+        film.setDuration(163);
+        return film;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
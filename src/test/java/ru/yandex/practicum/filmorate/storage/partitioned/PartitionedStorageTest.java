@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.storage.partitioned;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedStorageTest {
+
+    @Test
+    void shouldMergePartitionTopsIntoGlobalTop() {
+        PartitionedFilmStorage storage = new PartitionedFilmStorage(4, ForkJoinPool.commonPool());
+        for (int i = 0; i < 100; i++) {
+            storage.create(film());
+        }
+        for (int filmId = 1; filmId <= 100; filmId++) {
+            for (int userId = 1; userId <= filmId % 13; userId++) {
+                storage.addLike(filmId, userId);
+            }
+        }
+
+        List<Film> expected = storage.findAll().stream()
+                .sorted(Comparator.comparingInt((Film film) -> film.getLikes().size()).reversed()
+                        .thenComparingInt(Film::getId))
+                .limit(10)
+                .toList();
+
+        assertEquals(expected, storage.findPopular(10));
+        assertEquals(100, storage.findPopular(1_000).size());
+        assertTrue(storage.findPopular(0).isEmpty());
+    }
+
+    @Test
+    void shouldMergeTopsWhileLikesChange() throws Exception {
+        PartitionedFilmStorage storage = new PartitionedFilmStorage(4, ForkJoinPool.commonPool());
+        for (int i = 0; i < 2_000; i++) {
+            storage.create(film());
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread liker = new Thread(() -> {
+            Random random = new Random(1);
+            while (running.get()) {
+                int filmId = 1 + random.nextInt(2_000);
+                int userId = 1 + random.nextInt(50);
+                if (random.nextBoolean()) {
+                    storage.addLike(filmId, userId);
+                } else {
+                    storage.removeLike(filmId, userId);
+                }
+            }
+        });
+        liker.start();
+        try {
+            for (int i = 0; i < 200; i++) {
+                assertEquals(1_000, storage.findPopular(1_000).size());
+            }
+        } finally {
+            running.set(false);
+            liker.join();
+        }
+    }
+
+    @Test
+    void shouldScanAndPageAcrossPartitions() {
+        PartitionedFilmStorage storage = new PartitionedFilmStorage(3, ForkJoinPool.commonPool());
+        for (int i = 0; i < 10_000; i++) {
+            storage.create(film());
+        }
+
+        assertEquals(10_000, storage.findAll().size());
+        assertEquals(10_000, storage.findAll().stream().count());
+        assertEquals(10_000L * 10_001 / 2, storage.findAll().parallelStream().mapToLong(Film::getId).sum());
+        assertEquals(List.of(5, 6, 7), storage.findPage(4, 3).stream().map(Film::getId).toList());
+        assertThrows(NotFoundException.class, () -> storage.findById(10_001));
+        assertThrows(NotFoundException.class, () -> storage.addLike(-1, 1));
+    }
+
+    @Test
+    void shouldLinkFriendsFromDifferentPartitions() {
+        PartitionedUserStorage storage = new PartitionedUserStorage(4);
+        for (int i = 0; i < 8; i++) {
+            storage.create(user());
+        }
+
+        assertTrue(storage.addFriend(1, 2));
+        assertTrue(storage.addFriend(1, 7));
+
+        assertEquals(Set.of(2, 7), storage.findById(1).getFriends());
+        assertEquals(Set.of(1), storage.findById(7).getFriends());
+        assertEquals(List.of(2, 7), storage.findAllById(new int[]{2, 42, 7}).stream().map(User::getId).toList());
+    }
+
+    private Film film() {
+        Film film = new Film();
+        film.setName("Matrix");
+        film.setDescription("Good film");
+        film.setReleaseDate(LocalDate.of(1999, 3, 31));
+        film.setDuration(120);
+        return film;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
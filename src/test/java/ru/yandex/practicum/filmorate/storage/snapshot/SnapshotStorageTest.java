@@ -0,0 +1,146 @@
+package ru.yandex.practicum.filmorate.storage.snapshot;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotStorageTest {
+
+    @Test
+    void shouldKeepReadersOnTheirSnapshotWhileWritesLand() {
+        SnapshotFilmStorage storage = new SnapshotFilmStorage();
+        for (int i = 0; i < 3_000; i++) {
+            storage.create(film());
+        }
+        Collection<Film> before = storage.findAll();
+        Film firstBefore = storage.findById(1);
+
+        storage.addLike(1, 10);
+        storage.create(film());
+
+        assertEquals(3_000, before.size());
+        assertEquals(3_000, before.stream().count());
+        assertTrue(firstBefore.getLikes().isEmpty());
+        assertEquals(Set.of(10), storage.findById(1).getLikes());
+        assertEquals(3_001, storage.findAll().size());
+        List<Integer> ids = new ArrayList<>();
+        storage.findAll().forEach(film -> ids.add(film.getId()));
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i + 1, (int) ids.get(i));
+        }
+    }
+
+    @Test
+    void shouldPublishLikeBatchAsOneVersion() {
+        SnapshotFilmStorage storage = new SnapshotFilmStorage();
+        storage.create(film());
+        storage.create(film());
+        int[] many = new int[100];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = i + 1;
+        }
+        long version = storage.version();
+
+        assertTrue(storage.applyLikes(1, new int[]{1, 2, 3}, new int[]{4}));
+        assertTrue(storage.applyLikes(2, many, new int[0]));
+        assertFalse(storage.applyLikes(1, new int[]{1}, new int[]{4}));
+        assertTrue(storage.applyLikes(2, new int[0], many));
+
+        assertEquals(version + 3, storage.version());
+        assertEquals(Set.of(1, 2, 3), storage.findById(1).getLikes());
+        assertTrue(storage.findById(2).getLikes().isEmpty());
+        assertEquals(1, storage.findPopular(1).get(0).getId());
+    }
+
+    @Test
+    void shouldRankPopularFilmsFromTheSameSnapshot() {
+        SnapshotFilmStorage storage = new SnapshotFilmStorage();
+        for (int i = 0; i < 4; i++) {
+            storage.create(film());
+        }
+        storage.addLike(3, 1);
+        storage.addLike(3, 2);
+        storage.addLike(2, 1);
+        assertFalse(storage.addLike(2, 1));
+
+        assertEquals(List.of(3, 2, 1), storage.findPopular(3).stream().map(Film::getId).toList());
+
+        storage.removeLike(3, 1);
+        storage.removeLike(3, 2);
+
+        assertEquals(List.of(2, 1, 3, 4), storage.findPopular(10).stream().map(Film::getId).toList());
+        assertThrows(NotFoundException.class, () -> storage.addLike(5, 1));
+    }
+
+    @Test
+    void shouldPublishBothSidesOfFriendshipAtOnce() {
+        SnapshotUserStorage storage = new SnapshotUserStorage();
+        storage.create(user());
+        storage.create(user());
+        User before = storage.findById(1);
+
+        assertTrue(storage.addFriend(1, 2));
+        assertFalse(storage.addFriend(2, 1));
+
+        assertTrue(before.getFriends().isEmpty());
+        assertEquals(Set.of(2), storage.findById(1).getFriends());
+        assertEquals(Set.of(1), storage.findById(2).getFriends());
+        assertTrue(storage.removeFriend(2, 1));
+        assertTrue(storage.findById(1).getFriends().isEmpty());
+        assertThrows(NotFoundException.class, () -> storage.addFriend(1, 3));
+    }
+
+    @Test
+    void shouldScanStableSnapshotDuringConcurrentLikes() throws Exception {
+        SnapshotFilmStorage storage = new SnapshotFilmStorage();
+        for (int i = 0; i < 1_000; i++) {
+            storage.create(film());
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            int userId = 0;
+            while (running.get()) {
+                storage.addLike(1 + userId % 1_000, ++userId);
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 200; i++) {
+                Collection<Film> snapshot = storage.findAll();
+                long first = snapshot.stream().mapToLong(film -> film.getLikes().size()).sum();
+                long second = snapshot.stream().mapToLong(film -> film.getLikes().size()).sum();
+                assertEquals(first, second);
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    private Film film() {
+        Film film = new Film();
+        film.setName("Matrix");
+        film.setDescription("Good film");
+        film.setReleaseDate(LocalDate.of(1999, 3, 31));
+        film.setDuration(120);
+        return film;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
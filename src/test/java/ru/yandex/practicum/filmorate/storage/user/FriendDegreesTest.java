@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.IdSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FriendDegreesTest {
+
+    @Test
+    void shouldTrackLargestListAcrossDenseAndSparseSizes() {
+        FriendDegrees degrees = new FriendDegrees();
+        IdSet popular = new IdSet();
+        IdSet regular = new IdSet();
+        for (int id = 1; id <= 5000; id++) {
+            assertTrue(degrees.link(popular, id));
+        }
+        degrees.link(regular, 1);
+        degrees.link(regular, 2);
+
+        assertFalse(degrees.link(popular, 1));
+        assertEquals(5000, degrees.max());
+
+        for (int id = 1; id <= 4998; id++) {
+            assertTrue(degrees.unlink(popular, id));
+        }
+        assertFalse(degrees.unlink(popular, 1));
+        assertEquals(2, degrees.max());
+
+        degrees.unlink(popular, 4999);
+        degrees.unlink(popular, 5000);
+        degrees.unlink(regular, 1);
+        assertEquals(1, degrees.max());
+        degrees.moved(1, 0);
+        assertEquals(0, degrees.max());
+    }
+}
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.validation;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
@@ -7,9 +8,14 @@ import jakarta.validation.ValidatorFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.JsonResponseCache;
 import ru.yandex.practicum.filmorate.controller.FilmController;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.likes.LikeIngestion;
+import ru.yandex.practicum.filmorate.likes.LikeIngestionProperties;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.popular.PopularStreamProperties;
+import ru.yandex.practicum.filmorate.popular.PopularityStream;
 import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
 import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
@@ -77,13 +83,21 @@ class FilmValidationTest {
 
     @Test
     void shouldFailWhenReleaseDateBeforeCinemaBirthday() {
-        FilmService filmService = new FilmService(new InMemoryFilmStorage(), new InMemoryUserStorage());
-        FilmController controller = new FilmController(filmService);
+        FilmService filmService = new FilmService(new InMemoryFilmStorage(), new InMemoryUserStorage(), validator);
+        ObjectMapper objectMapper = new ObjectMapper();
+        PopularityStream popularityStream = new PopularityStream(filmService, objectMapper, new PopularStreamProperties());
+        FilmController controller = new FilmController(filmService, objectMapper,
+                new JsonResponseCache(objectMapper, 1 << 20, 1),
+                new LikeIngestion(filmService, new LikeIngestionProperties()), popularityStream);
 
         Film film = validFilm();
         film.setReleaseDate(LocalDate.of(1890, 3, 25));
 
-        assertThrows(ValidationException.class, () -> controller.createFilm(film));
+        try {
+            assertThrows(ValidationException.class, () -> controller.createFilm(film));
+        } finally {
+            popularityStream.close();
+        }
     }
 
     private Film validFilm() {
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.validation;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
@@ -10,7 +11,9 @@ import org.junit.jupiter.api.Test;
 import ru.yandex.practicum.filmorate.controller.UserController;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
 import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
 
 import java.time.LocalDate;
@@ -76,8 +79,10 @@ class UserValidationTest {
 
     @Test
     void shouldFailWhenLoginContainsSpaces() {
-        UserService userService = new UserService(new InMemoryUserStorage());
-        UserController controller = new UserController(userService);
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        UserService userService = new UserService(userStorage, validator);
+        FilmService filmService = new FilmService(new InMemoryFilmStorage(), userStorage, validator);
+        UserController controller = new UserController(userService, filmService, new ObjectMapper());
 
         User user = validUser();
         user.setLogin("lo gin");